@@ -0,0 +1,131 @@
+package controllers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import models.*;
+import utils.BackgroundTasks;
+
+/**
+ * CompletableFuture facade over HospitalManagementController.
+ *
+ * Every call runs the blocking controller method on BackgroundTasks.io(), so independent
+ * queries fan out in parallel and can be combined with allOf/thenCombine. Results
+ * complete on a background thread; hop back with thenAcceptAsync(..., BackgroundTasks.EDT)
+ * before touching Swing components.
+ */
+public class AsyncHospitalController {
+
+    private final HospitalManagementController hmc;
+
+    public AsyncHospitalController(HospitalManagementController hmc) {
+        this.hmc = hmc;
+    }
+
+    // --- Generic entry points for anything not wrapped below ---
+    public <T> CompletableFuture<T> patients(Function<PatientController, T> call) {
+        return CompletableFuture.supplyAsync(() -> call.apply(hmc.getPatientCtrl()), BackgroundTasks.io());
+    }
+
+    public <T> CompletableFuture<T> doctors(Function<DoctorController, T> call) {
+        return CompletableFuture.supplyAsync(() -> call.apply(hmc.getDoctorCtrl()), BackgroundTasks.io());
+    }
+
+    public <T> CompletableFuture<T> rooms(Function<RoomController, T> call) {
+        return CompletableFuture.supplyAsync(() -> call.apply(hmc.getRoomCtrl()), BackgroundTasks.io());
+    }
+
+    // --- PATIENTS ---
+    public CompletableFuture<List<Patient>> getAllPatients() {
+        return patients(PatientController::getAllPatients);
+    }
+
+    public CompletableFuture<List<Patient>> getPatientsByDoctorId(String doctorId) {
+        return patients(c -> c.getPatientsByDoctorId(doctorId));
+    }
+
+    public CompletableFuture<List<Patient>> getRecentPatients(int limit) {
+        return patients(c -> c.getRecentPatients(limit));
+    }
+
+    public CompletableFuture<Integer> getPatientCount() {
+        return patients(PatientController::getPatientCount);
+    }
+
+    public CompletableFuture<Integer> getTodayDischargeCount() {
+        return patients(PatientController::getTodayDischargeCount);
+    }
+
+    public CompletableFuture<Integer> getTodayAdmissionCount() {
+        return patients(PatientController::getTodayAdmissionCount);
+    }
+
+    public CompletableFuture<PatientStats> getPatientStats() {
+        return patients(PatientController::getPatientStats);
+    }
+
+    public CompletableFuture<Map<String, Integer>> getPatientCountsGroupedByDoctor() {
+        return patients(PatientController::getPatientCountsGroupedByDoctor);
+    }
+
+    // --- DOCTORS ---
+    public CompletableFuture<List<Doctor>> getAllDoctors() {
+        return doctors(DoctorController::getAllDoctors);
+    }
+
+    public CompletableFuture<Integer> getDoctorCount() {
+        return doctors(DoctorController::getDoctorCount);
+    }
+
+    public CompletableFuture<Map<String, Integer>> getSpecializationStats() {
+        return doctors(DoctorController::getSpecializationStats);
+    }
+
+    public CompletableFuture<List<Doctor>> getAvailableDoctors() {
+        return doctors(DoctorController::getAvailableDoctors);
+    }
+
+    // --- ROOMS ---
+    public CompletableFuture<List<Room>> getAllRooms() {
+        return rooms(RoomController::getAllRooms);
+    }
+
+    public CompletableFuture<List<Room>> getAvailableRooms() {
+        return rooms(RoomController::getAvailableRooms);
+    }
+
+    public CompletableFuture<Integer> getTotalRooms() {
+        return rooms(RoomController::getTotalRooms);
+    }
+
+    public CompletableFuture<Integer> getOccupiedRoomCount() {
+        return rooms(RoomController::getOccupiedRoomCount);
+    }
+
+    // --- DASHBOARD ---
+    public CompletableFuture<DashboardSnapshot> getDashboardSnapshot(int recentLimit) {
+        return CompletableFuture.supplyAsync(() -> hmc.getDashboardCtrl().getSnapshot(recentLimit), BackgroundTasks.io());
+    }
+
+    // --- Complex operations ---
+    public CompletableFuture<Boolean> assignPatientToRoom(String patientId, String roomId) {
+        return CompletableFuture.supplyAsync(() -> hmc.assignPatientToRoom(patientId, roomId), BackgroundTasks.io());
+    }
+
+    public CompletableFuture<Boolean> assignPatientToDoctor(String patientId, String doctorId) {
+        return CompletableFuture.supplyAsync(() -> hmc.assignPatientToDoctor(patientId, doctorId), BackgroundTasks.io());
+    }
+
+    public CompletableFuture<Boolean> dischargePatient(String patientId) {
+        return CompletableFuture.supplyAsync(() -> hmc.dischargePatient(patientId), BackgroundTasks.io());
+    }
+
+    public CompletableFuture<Map<String, Boolean>> dischargePatients(Collection<String> patientIds, LocalDate dischargeDate) {
+        List<String> ids = new ArrayList<>(patientIds); // Callers may keep mutating their collection
+        return CompletableFuture.supplyAsync(() -> hmc.dischargePatients(ids, dischargeDate), BackgroundTasks.io());
+    }
+}
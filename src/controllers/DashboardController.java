@@ -0,0 +1,92 @@
+package controllers;
+
+import models.DashboardSnapshot;
+import models.Doctor;
+import models.Patient;
+import db.dbConnecting;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DashboardController {
+
+    // Four result sets from one statement: counts, recent patients, department load, staff.
+    // The driver sends all of them in a single round trip and we walk them with getMoreResults().
+    private static final String SNAPSHOT_SQL =
+            "SELECT (SELECT COUNT(*) FROM patients) AS patient_count, " +
+            "       (SELECT COUNT(*) FROM doctors) AS doctor_count, " +
+            "       (SELECT COUNT(*) FROM rooms) AS total_rooms, " +
+            "       (SELECT COUNT(*) FROM patients WHERE room_id IS NOT NULL) AS occupied_rooms; " +
+            "SELECT p.*, r.room_type, d.name AS doc_name, d.specialization " +
+            "FROM patients p " +
+            "LEFT JOIN rooms r ON p.room_id = r.room_id " +
+            "LEFT JOIN doctors d ON p.doctor_id = d.doctor_id " +
+            "ORDER BY p.admission_date DESC LIMIT ?; " +
+            "SELECT specialization, COUNT(*) AS count FROM doctors GROUP BY specialization; " +
+            "SELECT * FROM doctors LIMIT 3";
+
+    // --- DASHBOARD SNAPSHOT (single round trip) ---
+    public DashboardSnapshot getSnapshot(int recentLimit) {
+        int patientCount = 0, doctorCount = 0, totalRooms = 0, occupiedRooms = 0;
+        List<Patient> recent = new ArrayList<>();
+        Map<String, Integer> specStats = new HashMap<>();
+        List<Doctor> available = new ArrayList<>();
+
+        try (Connection conn = dbConnecting.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SNAPSHOT_SQL)) {
+            pstmt.setInt(1, recentLimit);
+            pstmt.execute();
+
+            // 1. Counts
+            try (ResultSet rs = pstmt.getResultSet()) {
+                if (rs.next()) {
+                    patientCount = rs.getInt("patient_count");
+                    doctorCount = rs.getInt("doctor_count");
+                    totalRooms = rs.getInt("total_rooms");
+                    occupiedRooms = rs.getInt("occupied_rooms");
+                }
+            }
+
+            // 2. Recent Patients
+            if (pstmt.getMoreResults()) {
+                try (ResultSet rs = pstmt.getResultSet()) {
+                    while (rs.next()) {
+                        recent.add(PatientController.extractPatientFromResultSet(rs));
+                    }
+                }
+            }
+
+            // 3. Dept Load
+            if (pstmt.getMoreResults()) {
+                try (ResultSet rs = pstmt.getResultSet()) {
+                    while (rs.next()) {
+                        String spec = rs.getString("specialization");
+                        if (spec == null || spec.isEmpty()) spec = "General";
+                        specStats.merge(spec, rs.getInt("count"), Integer::sum);
+                    }
+                }
+            }
+
+            // 4. Active/Available Doctors
+            if (pstmt.getMoreResults()) {
+                try (ResultSet rs = pstmt.getResultSet()) {
+                    while (rs.next()) {
+                        available.add(new Doctor(
+                            rs.getString("doctor_id"),
+                            rs.getString("name"),
+                            rs.getString("specialization")
+                        ));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return new DashboardSnapshot(patientCount, doctorCount, totalRooms, occupiedRooms,
+                recent, specStats, available);
+    }
+}
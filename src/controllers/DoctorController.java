@@ -1,16 +1,35 @@
 package controllers;
 
 import models.Doctor;
+import db.config;
 import db.dbConnecting;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class DoctorController {
 
+    // --- READ-THROUGH CACHE ---
+    // Shared by every DoctorController; the write methods below invalidate it
+    private static final EntityCache<String, Doctor> CACHE_BY_ID =
+            new EntityCache<>("doctors", config.getCacheMaxEntries(), config.getCacheTtlSeconds());
+    private static final EntityCache<String, List<Doctor>> CACHE_ALL =
+            new EntityCache<>("doctors.all", 1, config.getCacheTtlSeconds());
+    private static final String ALL_KEY = "all";
+
+    public static void invalidateCache() {
+        CACHE_BY_ID.invalidateAll();
+        CACHE_ALL.invalidateAll();
+    }
+
+    public static EntityCache<String, Doctor> getCache() {
+        return CACHE_BY_ID;
+    }
+
     public boolean addDoctor(Doctor doctor) {
         String sql = "INSERT INTO doctors (doctor_id, name, specialization) VALUES (?, ?, ?)";
         try (Connection conn = dbConnecting.getConnection();
@@ -18,7 +37,9 @@ public class DoctorController {
             pstmt.setString(1, doctor.getDoctorId());
             pstmt.setString(2, doctor.getName());
             pstmt.setString(3, doctor.getSpecialization());
-            return pstmt.executeUpdate() > 0;
+            int rows = pstmt.executeUpdate();
+            invalidateCache();
+            return rows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -32,7 +53,9 @@ public class DoctorController {
             pstmt.setString(1, doctor.getName());
             pstmt.setString(2, doctor.getSpecialization());
             pstmt.setString(3, doctor.getDoctorId());
-            return pstmt.executeUpdate() > 0;
+            int rows = pstmt.executeUpdate();
+            invalidateCache();
+            return rows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -59,6 +82,7 @@ public class DoctorController {
                 int rows = pstmt2.executeUpdate();
                 
                 conn.commit(); // Commit Transaction
+                invalidateCache();
                 return rows > 0;
             } catch (SQLException ex) {
                 conn.rollback(); // Undo if delete fails
@@ -71,15 +95,23 @@ public class DoctorController {
         }
     }
 
+    // Uses the pg_trgm indexes; best matches first, capped at SEARCH_RESULT_LIMIT
     public List<Doctor> searchDoctors(String query) {
         List<Doctor> list = new ArrayList<>();
-        String sql = "SELECT * FROM doctors WHERE name ILIKE ? OR specialization ILIKE ? OR doctor_id ILIKE ?";
+        String sql = "SELECT * FROM doctors WHERE name ILIKE ? OR specialization ILIKE ? OR doctor_id ILIKE ? " +
+                     "ORDER BY " + SearchQuery.rankExpression("name", "specialization", "doctor_id") + " DESC, name " +
+                     "LIMIT ?";
         try (Connection conn = dbConnecting.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            String searchPattern = "%" + query + "%";
+            String searchPattern = SearchQuery.containsPattern(query);
+            String rank = SearchQuery.rankParam(query);
             pstmt.setString(1, searchPattern);
             pstmt.setString(2, searchPattern);
             pstmt.setString(3, searchPattern);
+            pstmt.setString(4, rank);
+            pstmt.setString(5, rank);
+            pstmt.setString(6, rank);
+            pstmt.setInt(7, SearchQuery.limit());
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 list.add(new Doctor(
@@ -95,6 +127,10 @@ public class DoctorController {
     }
 
     public Doctor findDoctorById(String doctorId) {
+        return CACHE_BY_ID.get(doctorId, this::loadDoctorById);
+    }
+
+    private Doctor loadDoctorById(String doctorId) {
         String sql = "SELECT * FROM doctors WHERE doctor_id = ?";
         try (Connection conn = dbConnecting.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -113,12 +149,20 @@ public class DoctorController {
         return null;
     }
 
+    // Returns a fresh list each call; the Doctor objects themselves are shared with the cache
     public List<Doctor> getAllDoctors() {
+        List<Doctor> all = CACHE_ALL.get(ALL_KEY, k -> loadAllDoctors());
+        return (all != null) ? new ArrayList<>(all) : new ArrayList<>();
+    }
+
+    // Also warms the by-id cache; null if the query failed so the failure isn't cached
+    private List<Doctor> loadAllDoctors() {
+        long generation = CACHE_BY_ID.generation();
         List<Doctor> list = new ArrayList<>();
         String sql = "SELECT * FROM doctors";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 list.add(new Doctor(
                     rs.getString("doctor_id"),
@@ -128,15 +172,17 @@ public class DoctorController {
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
-        return list;
+        for (Doctor d : list) CACHE_BY_ID.putIfCurrent(d.getDoctorId(), d, generation);
+        return Collections.unmodifiableList(list);
     }
 
     public int getDoctorCount() {
         String sql = "SELECT COUNT(*) FROM doctors";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             if (rs.next()) return rs.getInt(1);
         } catch (SQLException e) {
             e.printStackTrace();
@@ -150,8 +196,8 @@ public class DoctorController {
         Map<String, Integer> stats = new HashMap<>();
         String sql = "SELECT specialization, COUNT(*) as count FROM doctors GROUP BY specialization";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 String spec = rs.getString("specialization");
                 if(spec == null || spec.isEmpty()) spec = "General";
@@ -179,8 +225,8 @@ public class DoctorController {
         sql = "SELECT * FROM doctors LIMIT 3";
         
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 list.add(new Doctor(
                     rs.getString("doctor_id"),
@@ -0,0 +1,135 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Small read-through cache for reference data (doctors, rooms).
+ *
+ * Entries are kept in LRU order up to maxEntries and expire after the TTL. Loads run
+ * outside the lock so a slow query never blocks other readers; a load that started
+ * before an invalidate() is dropped instead of stored, so a write is never hidden
+ * behind the value it replaced. Loaders return null for "don't cache" (not found or
+ * the query failed).
+ *
+ * Cached values are shared between callers and must be treated as read-only.
+ */
+public class EntityCache<K, V> {
+
+    private static final List<EntityCache<?, ?>> ALL = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long generation = 0; // Bumped by every invalidation
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public EntityCache(String name, int maxEntries, long ttlSeconds) {
+        this.name = name;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, ttlSeconds));
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() <= EntityCache.this.maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+        ALL.add(this);
+    }
+
+    // Every cache created so far, for metrics reporting
+    public static List<EntityCache<?, ?>> all() {
+        return new ArrayList<>(ALL);
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> e = entries.get(key);
+            if (e != null && System.nanoTime() - e.loadedAt < ttlNanos) {
+                hits++;
+                return e.value;
+            }
+            if (e != null) entries.remove(key); // Expired
+            misses++;
+            loadGeneration = generation;
+        }
+
+        V value = loader.apply(key);
+        if (value != null) putIfCurrent(key, value, loadGeneration);
+        return value;
+    }
+
+    // Current generation, for callers that load several entries in one query (see putIfCurrent)
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Stores value unless the cache was invalidated after the load that produced it started
+    public synchronized void putIfCurrent(K key, V value, long loadGeneration) {
+        if (maxEntries == 0 || ttlNanos == 0 || loadGeneration != generation) return;
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d entries, %d hits, %d misses (%.1f%%), %d evictions",
+                name, entries.size(), hits, misses, getHitRate() * 100, evictions);
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -1,74 +1,83 @@
 package controllers;
 
-import models.*;
+import db.ChangeEvent;
+import db.ChangeFeedListener;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public class HospitalManagementController {
     
     private PatientController patientCtrl;
     private DoctorController doctorCtrl;
     private RoomController roomCtrl;
+    private DashboardController dashboardCtrl;
+    private AsyncHospitalController asyncCtrl;
+
+    // Drops cached doctors/rooms when any terminal changes them. Subscribed once per process,
+    // ahead of the panels, so their follow-up reads already miss the cache.
+    private static final ChangeFeedListener.Subscriber CACHE_INVALIDATOR = new ChangeFeedListener.Subscriber() {
+        @Override
+        public void onChanges(List<ChangeEvent> events) {
+            for (ChangeEvent e : events) {
+                if (e.getTable() == ChangeEvent.Table.DOCTORS) DoctorController.invalidateCache();
+                // Cached rooms carry their occupant, so patient changes count too
+                if (e.getTable() == ChangeEvent.Table.ROOMS || e.getTable() == ChangeEvent.Table.PATIENTS) {
+                    RoomController.invalidateCache();
+                }
+            }
+        }
+
+        @Override
+        public void onResync() {
+            DoctorController.invalidateCache();
+            RoomController.invalidateCache();
+        }
+    };
+    private static boolean changeFeedStarted = false;
 
     public HospitalManagementController() {
-        this.patientCtrl = new PatientController();
+        this.patientCtrl = new PatientController(); // Applies the schema migrations, incl. the change triggers
         this.doctorCtrl = new DoctorController();
         this.roomCtrl = new RoomController();
+        this.dashboardCtrl = new DashboardController();
+        this.asyncCtrl = new AsyncHospitalController(this);
+        startChangeFeed();
+    }
+
+    private static synchronized void startChangeFeed() {
+        if (changeFeedStarted) return;
+        changeFeedStarted = true;
+        ChangeFeedListener.getInstance().subscribe(CACHE_INVALIDATOR);
     }
 
     public PatientController getPatientCtrl() { return patientCtrl; }
     public DoctorController getDoctorCtrl() { return doctorCtrl; }
     public RoomController getRoomCtrl() { return roomCtrl; }
+    public DashboardController getDashboardCtrl() { return dashboardCtrl; }
+    public AsyncHospitalController getAsyncCtrl() { return asyncCtrl; }
 
     // --- Complex Logic: Assign Patient to Room ---
+    // Existence, "room empty" and "patient not already in a room" are checked inside the UPDATE itself
     public boolean assignPatientToRoom(String patientId, String roomId) {
-        // Fetch fresh data from DB
-        Patient p = patientCtrl.findPatientById(patientId);
-        Room r = roomCtrl.findRoomById(roomId);
-
-        // Validation: exist, room empty, patient not already in room
-        if (p != null && r != null && !r.isOccupied() && p.getRoom() == null) {
-            
-            // 1. Update In-Memory Models
-            r.assignPatient(p); 
-            p.assignRoom(r);    
-
-            // 2. Persist to Database
-            // We only need to update the patient, because the foreign key (room_id) is in the patient table
-            patientCtrl.updatePatientRelationships(p);
-            
-            return true;
-        }
-        return false;
+        return patientCtrl.assignRoom(patientId, roomId);
     }
 
     // --- Complex Logic: Assign Patient to Doctor ---
+    // Foreign key doctor_id lives in the patient table, so one UPDATE moves the patient
     public boolean assignPatientToDoctor(String patientId, String doctorId) {
-        Patient p = patientCtrl.findPatientById(patientId);
-        Doctor d = doctorCtrl.findDoctorById(doctorId);
-
-        if (p != null && d != null) {
-            // Logic to handle old doctor removal in memory
-            if (p.getDoctor() != null) {
-                p.getDoctor().removePatient(p);
-            }
-            d.assignPatient(p); 
-            p.assignDoctor(d);  
-
-            // Persist to Database (Foreign key doctor_id is in patient table)
-            patientCtrl.updatePatientRelationships(p);
-
-            return true;
-        }
-        return false;
+        return patientCtrl.assignDoctor(patientId, doctorId);
     }
 
     // --- Complex Logic: Discharge Patient ---
     public boolean dischargePatient(String patientId) {
-        Patient p = patientCtrl.findPatientById(patientId);
-        
-        if (p != null) {
-            // Delegate to PatientController which handles History logic
-            return patientCtrl.dischargePatient(patientId);
-        }
-        return false;
+        // Delegate to PatientController which handles History logic (and the existence check)
+        return patientCtrl.dischargePatient(patientId);
+    }
+
+    // --- Complex Logic: Bulk Discharge ---
+    public Map<String, Boolean> dischargePatients(Collection<String> patientIds, LocalDate dischargeDate) {
+        return patientCtrl.dischargePatients(patientIds, dischargeDate);
     }
-}
\ No newline at end of file
+}
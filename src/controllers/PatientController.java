@@ -3,11 +3,16 @@ package controllers;
 import models.Patient;
 import models.Room;
 import models.Doctor;
+import models.PatientPage;
+import models.PatientStats;
+import db.SchemaMigrations;
 import db.dbConnecting;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.time.LocalDate;
@@ -15,12 +20,10 @@ import java.time.temporal.ChronoUnit;
 
 public class PatientController {
 
-    private RoomController roomCtrl = new RoomController();
-    private DoctorController doctorCtrl = new DoctorController();
-
     // --- CRUD: ADD ---
     public PatientController() {
         createHistoryTable();
+        SchemaMigrations.apply();
     }
 
     private void createHistoryTable() {
@@ -51,6 +54,7 @@ public class PatientController {
             stmt.execute(drop1);
             stmt.execute(drop2);
             createHistoryTable(); // Re-create fresh
+            SchemaMigrations.reapply(); // The new table needs its change-feed trigger again
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -86,7 +90,9 @@ public class PatientController {
             pstmt.setString(3, p.getAddress());
             pstmt.setString(4, p.getMedicalHistory());
             pstmt.setString(5, p.getPatientId());
-            return pstmt.executeUpdate() > 0;
+            int rows = pstmt.executeUpdate();
+            RoomController.invalidateCache(); // Cached rooms show their occupant's name
+            return rows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -106,8 +112,62 @@ public class PatientController {
 
             pstmt.setString(3, p.getPatientId());
             pstmt.executeUpdate();
+            RoomController.invalidateCache();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // --- ASSIGN ROOM (validated and applied in one statement) ---
+    // Succeeds only if the patient has no room yet and the room exists and is empty.
+    // A null roomId takes the patient out of their current room.
+    public boolean assignRoom(String patientId, String roomId) {
+        if (roomId == null) {
+            String sql = "UPDATE patients SET room_id = NULL WHERE patient_id = ? AND room_id IS NOT NULL";
+            try (Connection conn = dbConnecting.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, patientId);
+                int rows = pstmt.executeUpdate();
+                RoomController.invalidateCache();
+                return rows > 0;
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+
+        String sql = "UPDATE patients SET room_id = ? " +
+                     "WHERE patient_id = ? AND room_id IS NULL " +
+                     "AND EXISTS (SELECT 1 FROM rooms WHERE room_id = ?) " +
+                     "AND NOT EXISTS (SELECT 1 FROM patients WHERE room_id = ?)";
+        try (Connection conn = dbConnecting.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, roomId);
+            pstmt.setString(2, patientId);
+            pstmt.setString(3, roomId);
+            pstmt.setString(4, roomId);
+            int rows = pstmt.executeUpdate();
+            RoomController.invalidateCache();
+            return rows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
+        }
+    }
+
+    // --- ASSIGN DOCTOR (replaces any previous doctor) ---
+    public boolean assignDoctor(String patientId, String doctorId) {
+        String sql = "UPDATE patients SET doctor_id = ? " +
+                     "WHERE patient_id = ? AND EXISTS (SELECT 1 FROM doctors WHERE doctor_id = ?)";
+        try (Connection conn = dbConnecting.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, doctorId);
+            pstmt.setString(2, patientId);
+            pstmt.setString(3, doctorId);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
         }
     }
 
@@ -117,7 +177,9 @@ public class PatientController {
         try (Connection conn = dbConnecting.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, patientId);
-            return pstmt.executeUpdate() > 0;
+            int rows = pstmt.executeUpdate();
+            RoomController.invalidateCache();
+            return rows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -125,44 +187,83 @@ public class PatientController {
     }
 
     public boolean dischargePatient(String patientId) {
-        // 1. Get info
-        Patient p = findPatientById(patientId);
-        if (p == null) return false;
+        return dischargePatient(patientId, LocalDate.now());
+    }
 
-        // 2. SAVE TO HISTORY (Independent Step)
-        if (!saveToHistory(p)) {
-            System.err.println("Critical Error: Could not save patient to history. Aborting discharge.");
+    // --- DISCHARGE (move to history in one statement) ---
+    // The DELETE ... RETURNING feeds the INSERT directly, so the row leaves patients and lands
+    // in patient_history atomically: never in both tables, never in neither. Two clerks
+    // discharging the same patient race on the DELETE and only one of them inserts history.
+    // Parameters: patient_id, fallback admission date, discharge date.
+    private static final String DISCHARGE_SQL =
+            "WITH moved AS (DELETE FROM patients WHERE patient_id = ? RETURNING *) " +
+            "INSERT INTO patient_history (patient_id, name, age, address, medical_history, doctor_name, admission_date, discharge_date) " +
+            "SELECT m.patient_id, m.name, m.age, m.address, m.medical_history, " +
+            "       COALESCE(d.name, 'Unassigned'), " +
+            "       COALESCE(to_char(m.admission_date, 'YYYY-MM-DD'), ?), ? " +
+            "FROM moved m LEFT JOIN doctors d ON m.doctor_id = d.doctor_id";
+
+    private static final int DISCHARGE_BATCH_SIZE = 100;
+
+    public boolean dischargePatient(String patientId, LocalDate dischargeDate) {
+        String discharged = dischargeDate.toString();
+        try (Connection conn = dbConnecting.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(DISCHARGE_SQL)) {
+            pstmt.setString(1, patientId);
+            pstmt.setString(2, discharged);
+            pstmt.setString(3, discharged);
+            int rows = pstmt.executeUpdate();
+            RoomController.invalidateCache(); // The patient's room is free now
+            return rows > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
             return false;
         }
-
-        // 3. REMOVE PATIENT (Independent Step)
-        return removePatient(patientId);
     }
 
-    private boolean saveToHistory(Patient p) {
-        String docName = (p.getDoctor() != null) ? p.getDoctor().getName() : "Unassigned";
-        String admDate = (p.getAdmissionDate() != null) ? p.getAdmissionDate().toString() : LocalDate.now().toString();
-
-        String sql = "INSERT INTO patient_history (patient_id, name, age, address, medical_history, doctor_name, admission_date, discharge_date) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-                     
-        try (Connection conn = dbConnecting.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, p.getPatientId());
-            pstmt.setString(2, p.getName());
-            pstmt.setInt(3, p.getAge());
-            pstmt.setString(4, p.getAddress());
-            pstmt.setString(5, p.getMedicalHistory());
-            pstmt.setString(6, docName);
-            pstmt.setString(7, admDate);
-            pstmt.setString(8, LocalDate.now().toString());
-            
-            return pstmt.executeUpdate() > 0;
+    // --- BULK DISCHARGE (end of shift) ---
+    // All ids go through one connection and one transaction, sent in JDBC batches.
+    // Returns id -> discharged; ids that no longer exist map to false. If any batch fails
+    // the whole transaction is rolled back and every id maps to false.
+    public Map<String, Boolean> dischargePatients(Collection<String> patientIds, LocalDate dischargeDate) {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        for (String id : patientIds) results.put(id, false);
+        if (results.isEmpty()) return results;
+
+        String discharged = dischargeDate.toString();
+        List<String> ids = new ArrayList<>(results.keySet());
+
+        try (Connection conn = dbConnecting.getConnection()) {
+            conn.setAutoCommit(false); // Start Transaction
+
+            try (PreparedStatement pstmt = conn.prepareStatement(DISCHARGE_SQL)) {
+                for (int from = 0; from < ids.size(); from += DISCHARGE_BATCH_SIZE) {
+                    List<String> chunk = ids.subList(from, Math.min(from + DISCHARGE_BATCH_SIZE, ids.size()));
+                    for (String id : chunk) {
+                        pstmt.setString(1, id);
+                        pstmt.setString(2, discharged);
+                        pstmt.setString(3, discharged);
+                        pstmt.addBatch();
+                    }
+                    int[] counts = pstmt.executeBatch();
+                    for (int i = 0; i < counts.length; i++) {
+                        results.put(chunk.get(i), counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO);
+                    }
+                }
+                conn.commit(); // Commit Transaction
+                RoomController.invalidateCache();
+            } catch (SQLException ex) {
+                conn.rollback(); // Undo every discharge in this call
+                ex.printStackTrace();
+                results.replaceAll((id, ok) -> false);
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
-            return false;
+            results.replaceAll((id, ok) -> false);
         }
+        return results;
     }
     
     // --- HISTORY METHODS ---
@@ -170,8 +271,8 @@ public class PatientController {
         List<models.PatientHistory> list = new ArrayList<>();
         String sql = "SELECT * FROM patient_history ORDER BY discharge_date DESC";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 try {
                     list.add(new models.PatientHistory(
@@ -195,43 +296,24 @@ public class PatientController {
         return list;
     }
     
-    // --- FIND SINGLE PATIENT ---
+    // --- FIND SINGLE PATIENT (JOIN QUERY: patient + room + doctor in one round trip) ---
     public Patient findPatientById(String patientId) {
-        String sql = "SELECT * FROM patients WHERE patient_id = ?";
-        Patient p = null;
+        String sql = "SELECT p.*, r.room_type, d.name AS doc_name, d.specialization " +
+                     "FROM patients p " +
+                     "LEFT JOIN rooms r ON p.room_id = r.room_id " +
+                     "LEFT JOIN doctors d ON p.doctor_id = d.doctor_id " +
+                     "WHERE p.patient_id = ?";
         try (Connection conn = dbConnecting.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, patientId);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                p = new Patient(
-                    rs.getString("patient_id"),
-                    rs.getString("name"),
-                    rs.getInt("age"),
-                    rs.getString("address"),
-                    rs.getString("medical_history")
-                );
-                
-                // Load Date
-                java.sql.Date dbDate = rs.getDate("admission_date");
-                if (dbDate != null) p.setAdmissionDate(dbDate.toLocalDate());
-
-                // Load Relations
-                String roomId = rs.getString("room_id");
-                if (roomId != null) {
-                    Room r = roomCtrl.findRoomById(roomId);
-                    if (r != null) { p.assignRoom(r); r.assignPatient(p); }
-                }
-                String doctorId = rs.getString("doctor_id");
-                if (doctorId != null) {
-                    Doctor d = doctorCtrl.findDoctorById(doctorId);
-                    if (d != null) { p.assignDoctor(d); d.assignPatient(p); }
-                }
+                return extractPatientFromResultSet(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return p;
+        return null;
     }
 
     // --- OPTIMIZED: GET ALL (JOIN QUERY) ---
@@ -243,8 +325,8 @@ public class PatientController {
                      "LEFT JOIN doctors d ON p.doctor_id = d.doctor_id";
 
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 list.add(extractPatientFromResultSet(rs));
             }
@@ -254,6 +336,80 @@ public class PatientController {
         return list;
     }
 
+    // --- KEYSET PAGINATION (large censuses) ---
+    // Order: admission_date DESC NULLS LAST, patient_id DESC. Each page seeks past the cursor
+    // instead of using OFFSET, so page N costs the same as page 1. Dated and undated patients
+    // are read by two index-ordered branches so NULL dates never break the seek predicate.
+    // Pass after = null for the first page and doctorId = null for all doctors.
+    public PatientPage getPatientsPage(int pageSize, PatientPage.Cursor after, String doctorId) {
+        int limit = Math.max(pageSize, 1) + 1; // One extra row tells us whether another page exists
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT p.*, r.room_type, d.name AS doc_name, d.specialization FROM (");
+
+        boolean afterDated = after != null && after.getAdmissionDate() != null;
+        boolean inUndated = after != null && after.getAdmissionDate() == null;
+
+        // Branch 1: patients with an admission date (skipped once the cursor reached the undated tail)
+        if (!inUndated) {
+            sql.append("(SELECT * FROM patients WHERE admission_date IS NOT NULL");
+            if (doctorId != null) {
+                sql.append(" AND doctor_id = ?");
+                params.add(doctorId);
+            }
+            if (afterDated) {
+                sql.append(" AND (admission_date, patient_id) < (?, ?)");
+                params.add(java.sql.Date.valueOf(after.getAdmissionDate()));
+                params.add(after.getPatientId());
+            }
+            sql.append(" ORDER BY admission_date DESC NULLS LAST, patient_id DESC LIMIT ?) UNION ALL ");
+            params.add(limit);
+        }
+
+        // Branch 2: patients without an admission date, listed last
+        sql.append("(SELECT * FROM patients WHERE admission_date IS NULL");
+        if (doctorId != null) {
+            sql.append(" AND doctor_id = ?");
+            params.add(doctorId);
+        }
+        if (inUndated) {
+            sql.append(" AND patient_id < ?");
+            params.add(after.getPatientId());
+        }
+        sql.append(" ORDER BY patient_id DESC LIMIT ?)");
+        params.add(limit);
+
+        sql.append(") p ")
+           .append("LEFT JOIN rooms r ON p.room_id = r.room_id ")
+           .append("LEFT JOIN doctors d ON p.doctor_id = d.doctor_id ")
+           .append("ORDER BY p.admission_date DESC NULLS LAST, p.patient_id DESC LIMIT ?");
+        params.add(limit);
+
+        List<Patient> list = new ArrayList<>();
+        PatientPage.Cursor next = null;
+        boolean hasMore = false;
+
+        try (Connection conn = dbConnecting.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                if (list.size() == limit - 1) {
+                    hasMore = true;
+                    break;
+                }
+                list.add(extractPatientFromResultSet(rs));
+                // Read the raw column: Patient defaults a missing date to today
+                java.sql.Date dbDate = rs.getDate("admission_date");
+                next = new PatientPage.Cursor(dbDate != null ? dbDate.toLocalDate() : null, rs.getString("patient_id"));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new PatientPage(list, hasMore ? next : null, hasMore);
+    }
+
     // --- NEW: FILTER BY DOCTOR (JOIN QUERY) ---
     public List<Patient> getPatientsByDoctorId(String doctorId) {
         List<Patient> list = new ArrayList<>();
@@ -277,19 +433,34 @@ public class PatientController {
     }
 
     // --- OPTIMIZED: SEARCH (JOIN QUERY) ---
+    // Uses the pg_trgm indexes on name / patient_id; best matches first, capped at SEARCH_RESULT_LIMIT
     public List<Patient> searchPatients(String query) {
+        return searchPatients(query, null);
+    }
+
+    // doctorId (optional) is applied before the limit, so a doctor still gets their best matches
+    public List<Patient> searchPatients(String query, String doctorId) {
         List<Patient> list = new ArrayList<>();
         String sql = "SELECT p.*, r.room_type, d.name AS doc_name, d.specialization " +
                      "FROM patients p " +
                      "LEFT JOIN rooms r ON p.room_id = r.room_id " +
                      "LEFT JOIN doctors d ON p.doctor_id = d.doctor_id " +
-                     "WHERE p.name ILIKE ? OR p.patient_id ILIKE ?";
+                     "WHERE (p.name ILIKE ? OR p.patient_id ILIKE ?) " +
+                     (doctorId != null ? "AND p.doctor_id = ? " : "") +
+                     "ORDER BY " + SearchQuery.rankExpression("p.name", "p.patient_id") + " DESC, p.name " +
+                     "LIMIT ?";
                      
         try (Connection conn = dbConnecting.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            String searchPattern = "%" + query + "%";
-            pstmt.setString(1, searchPattern);
-            pstmt.setString(2, searchPattern);
+            String searchPattern = SearchQuery.containsPattern(query);
+            String rank = SearchQuery.rankParam(query);
+            int i = 1;
+            pstmt.setString(i++, searchPattern);
+            pstmt.setString(i++, searchPattern);
+            if (doctorId != null) pstmt.setString(i++, doctorId);
+            pstmt.setString(i++, rank);
+            pstmt.setString(i++, rank);
+            pstmt.setInt(i, SearchQuery.limit());
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 list.add(extractPatientFromResultSet(rs));
@@ -306,8 +477,8 @@ public class PatientController {
         String sql = "SELECT doctor_id, COUNT(*) as count FROM patients WHERE doctor_id IS NOT NULL GROUP BY doctor_id";
         
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
              
             while (rs.next()) {
                 counts.put(rs.getString("doctor_id"), rs.getInt("count"));
@@ -319,7 +490,7 @@ public class PatientController {
     }
 
     // Helper to extract patient data from JOIN results
-    private Patient extractPatientFromResultSet(ResultSet rs) throws SQLException {
+    static Patient extractPatientFromResultSet(ResultSet rs) throws SQLException {
         Patient p = new Patient(
             rs.getString("patient_id"),
             rs.getString("name"),
@@ -373,8 +544,8 @@ public class PatientController {
     public int getPatientCount() {
         String sql = "SELECT COUNT(*) FROM patients";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             if (rs.next()) return rs.getInt(1);
         } catch (SQLException e) {
             e.printStackTrace();
@@ -386,8 +557,8 @@ public class PatientController {
         // Count patients in ICU rooms
         String sql = "SELECT COUNT(*) FROM patients p JOIN rooms r ON p.room_id = r.room_id WHERE r.room_type = 'ICU'";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             if (rs.next()) return rs.getInt(1);
         } catch (SQLException e) {
             e.printStackTrace();
@@ -423,6 +594,35 @@ public class PatientController {
         return 0;
     }
 
+    // --- PATIENT SCREEN KPIs (one statement, counts only) ---
+    public PatientStats getPatientStats() {
+        LocalDate today = LocalDate.now();
+        String sql = "SELECT (SELECT COUNT(*) FROM patients) AS total_patients, " +
+                     "       (SELECT COUNT(*) FROM patients WHERE admission_date = ?) AS admitted_today, " +
+                     "       (SELECT COUNT(*) FROM patient_history WHERE discharge_date = ?) AS discharged_today, " +
+                     "       (SELECT COUNT(*) FROM rooms r WHERE NOT EXISTS " +
+                     "            (SELECT 1 FROM patients p WHERE p.room_id = r.room_id)) AS available_rooms, " +
+                     "       (SELECT COUNT(*) FROM rooms) AS total_rooms";
+        try (Connection conn = dbConnecting.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDate(1, java.sql.Date.valueOf(today));
+            pstmt.setString(2, today.toString()); // patient_history stores dates as text
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return new PatientStats(
+                    rs.getInt("total_patients"),
+                    rs.getInt("admitted_today"),
+                    rs.getInt("discharged_today"),
+                    rs.getInt("available_rooms"),
+                    rs.getInt("total_rooms")
+                );
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new PatientStats(0, 0, 0, 0, 0);
+    }
+
     // --- BILLING GENERATOR ---
     public String generateBill(String patientId, LocalDate dischargeDate) {
         Patient p = findPatientById(patientId);
@@ -2,20 +2,42 @@ package controllers;
 
 import models.Room;
 import models.Patient;
+import db.config;
 import db.dbConnecting;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class RoomController {
 
+    // --- READ-THROUGH CACHE ---
+    // Shared by every RoomController. Cached rooms carry their occupant, so besides the
+    // write methods below, PatientController invalidates it whenever a patient's room changes.
+    private static final EntityCache<String, Room> CACHE_BY_ID =
+            new EntityCache<>("rooms", config.getCacheMaxEntries(), config.getCacheTtlSeconds());
+    private static final EntityCache<String, List<Room>> CACHE_ALL =
+            new EntityCache<>("rooms.all", 1, config.getCacheTtlSeconds());
+    private static final String ALL_KEY = "all";
+
+    public static void invalidateCache() {
+        CACHE_BY_ID.invalidateAll();
+        CACHE_ALL.invalidateAll();
+    }
+
+    public static EntityCache<String, Room> getCache() {
+        return CACHE_BY_ID;
+    }
+
     public boolean addRoom(Room room) {
         String sql = "INSERT INTO rooms (room_id, room_type) VALUES (?, ?)";
         try (Connection conn = dbConnecting.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, room.getRoomId());
             pstmt.setString(2, room.getRoomType());
-            return pstmt.executeUpdate() > 0;
+            int rows = pstmt.executeUpdate();
+            invalidateCache();
+            return rows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -28,7 +50,9 @@ public class RoomController {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, room.getRoomType());
             pstmt.setString(2, room.getRoomId());
-            return pstmt.executeUpdate() > 0;
+            int rows = pstmt.executeUpdate();
+            invalidateCache();
+            return rows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -54,6 +78,7 @@ public class RoomController {
                 pstmt2.setString(1, roomId);
                 int rows = pstmt2.executeUpdate();
                 conn.commit();
+                invalidateCache();
                 return rows > 0;
             } catch (SQLException ex) {
                 conn.rollback();
@@ -66,18 +91,25 @@ public class RoomController {
         }
     }
 
+    // Uses the pg_trgm indexes; best matches first, capped at SEARCH_RESULT_LIMIT
     public List<Room> searchRooms(String query) {
         java.util.Map<String, Room> roomMap = new java.util.LinkedHashMap<>();
         String sql = "SELECT r.*, p.patient_id, p.name AS patient_name " +
                      "FROM rooms r " +
                      "LEFT JOIN patients p ON r.room_id = p.room_id " +
-                     "WHERE r.room_id ILIKE ? OR r.room_type ILIKE ?";
+                     "WHERE r.room_id ILIKE ? OR r.room_type ILIKE ? " +
+                     "ORDER BY " + SearchQuery.rankExpression("r.room_id", "r.room_type") + " DESC, r.room_id " +
+                     "LIMIT ?";
                      
         try (Connection conn = dbConnecting.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            String searchPattern = "%" + query + "%";
+            String searchPattern = SearchQuery.containsPattern(query);
+            String rank = SearchQuery.rankParam(query);
             pstmt.setString(1, searchPattern);
             pstmt.setString(2, searchPattern);
+            pstmt.setString(3, rank);
+            pstmt.setString(4, rank);
+            pstmt.setInt(5, SearchQuery.limit());
             
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -103,6 +135,10 @@ public class RoomController {
     }
 
     public Room findRoomById(String roomId) {
+        return CACHE_BY_ID.get(roomId, this::loadRoomById);
+    }
+
+    private Room loadRoomById(String roomId) {
         String sql = "SELECT r.*, p.patient_id, p.name AS patient_name " +
                      "FROM rooms r " +
                      "LEFT JOIN patients p ON r.room_id = p.room_id " +
@@ -126,14 +162,22 @@ public class RoomController {
         return null;
     }
 
+    // Returns a fresh list each call; the Room objects themselves are shared with the cache
     public List<Room> getAllRooms() {
+        List<Room> all = CACHE_ALL.get(ALL_KEY, k -> loadAllRooms());
+        return (all != null) ? new ArrayList<>(all) : new ArrayList<>();
+    }
+
+    // Also warms the by-id cache; null if the query failed so the failure isn't cached
+    private List<Room> loadAllRooms() {
+        long generation = CACHE_BY_ID.generation();
         java.util.Map<String, Room> roomMap = new java.util.LinkedHashMap<>();
         String sql = "SELECT r.*, p.patient_id, p.name AS patient_name " +
                      "FROM rooms r " +
                      "LEFT JOIN patients p ON r.room_id = p.room_id";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 String roomId = rs.getString("room_id");
                 // Using computeIfAbsent to ensure unique Room objects
@@ -154,8 +198,10 @@ public class RoomController {
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
-        return new ArrayList<>(roomMap.values());
+        for (Room r : roomMap.values()) CACHE_BY_ID.putIfCurrent(r.getRoomId(), r, generation);
+        return Collections.unmodifiableList(new ArrayList<>(roomMap.values()));
     }
 
     public List<Room> getAvailableRooms() {
@@ -164,8 +210,8 @@ public class RoomController {
                      "LEFT JOIN patients p ON r.room_id = p.room_id " +
                      "WHERE p.patient_id IS NULL";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 available.add(new Room(rs.getString("room_id"), rs.getString("room_type")));
             }
@@ -178,8 +224,8 @@ public class RoomController {
     public int getTotalRooms() {
         String sql = "SELECT COUNT(*) FROM rooms";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             if (rs.next()) return rs.getInt(1);
         } catch (SQLException e) {
             e.printStackTrace();
@@ -190,8 +236,8 @@ public class RoomController {
     public int getOccupiedRoomCount() {
         String sql = "SELECT COUNT(*) FROM patients WHERE room_id IS NOT NULL";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
             if (rs.next()) return rs.getInt(1);
         } catch (SQLException e) {
             e.printStackTrace();
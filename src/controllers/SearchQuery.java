@@ -0,0 +1,43 @@
+package controllers;
+
+import db.SchemaMigrations;
+import db.config;
+
+// Shared pieces of the search-box queries (LIKE escaping, ranking, result limit)
+final class SearchQuery {
+
+    private SearchQuery() {}
+
+    // '%q%' with the user's own % and _ taken literally
+    static String containsPattern(String query) {
+        return "%" + escapeLike(query.trim()) + "%";
+    }
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // ORDER BY expression (higher = better) over the searched columns, one bind per column.
+    // With pg_trgm it is the best trigram similarity; without it, prefix matches rank first.
+    static String rankExpression(String... columns) {
+        StringBuilder sb = new StringBuilder();
+        boolean trigram = SchemaMigrations.isTrigramAvailable();
+        sb.append(trigram ? "GREATEST(" : "(CASE WHEN ");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) sb.append(trigram ? ", " : " OR ");
+            sb.append(trigram ? "similarity(" + columns[i] + ", ?)" : columns[i] + " ILIKE ?");
+        }
+        sb.append(trigram ? ")" : " THEN 1 ELSE 0 END)");
+        return sb.toString();
+    }
+
+    // Value to bind for each rankExpression placeholder
+    static String rankParam(String query) {
+        String q = query.trim();
+        return SchemaMigrations.isTrigramAvailable() ? q : escapeLike(q) + "%";
+    }
+
+    static int limit() {
+        return Math.max(config.getSearchResultLimit(), 1);
+    }
+}
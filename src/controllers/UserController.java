@@ -84,8 +84,30 @@ public class UserController {
         List<User> list = new ArrayList<>();
         String sql = "SELECT * FROM users";
         try (Connection conn = dbConnecting.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                list.add(new User(
+                    rs.getString("username"),
+                    rs.getString("role"),
+                    rs.getString("linked_id")
+                ));
+            }
+        } catch (SQLException e) { e.printStackTrace(); }
+        return list;
+    }
+
+    // Same match as the old client-side filter (username or role), but done by the database
+    public List<User> searchUsers(String query) {
+        List<User> list = new ArrayList<>();
+        String sql = "SELECT * FROM users WHERE username ILIKE ? OR role ILIKE ? ORDER BY username LIMIT ?";
+        try (Connection conn = dbConnecting.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            String searchPattern = SearchQuery.containsPattern(query);
+            pstmt.setString(1, searchPattern);
+            pstmt.setString(2, searchPattern);
+            pstmt.setInt(3, SearchQuery.limit());
+            ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 list.add(new User(
                     rs.getString("username"),
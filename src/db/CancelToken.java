@@ -0,0 +1,82 @@
+package db;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Lets a caller abandon the queries a piece of work is running.
+ *
+ * Work started through runWith() binds the token to its thread; every pooled statement
+ * executed on that thread registers with it, and cancel() sends Statement.cancel() to
+ * whatever is still running so Postgres stops working on a result nobody wants.
+ *
+ * A statement stopped that way throws CancellationException instead of the driver's
+ * SQLException (57014), so the controllers' catch (SQLException) blocks do not report an
+ * abandoned search or refresh as a database error; callers already ignore failures of
+ * work they cancelled.
+ */
+public class CancelToken {
+
+    private static final ThreadLocal<CancelToken> CURRENT = new ThreadLocal<>();
+    private static final String QUERY_CANCELED = "57014";
+
+    private final Set<Statement> running = new HashSet<>();
+    private volatile boolean cancelled = false;
+
+    public static <T> T runWith(CancelToken token, Supplier<T> work) {
+        CancelToken previous = CURRENT.get();
+        CURRENT.set(token);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) CURRENT.set(previous);
+            else CURRENT.remove();
+        }
+    }
+
+    static CancelToken current() {
+        return CURRENT.get();
+    }
+
+    // Synchronized with unregister(): once a statement has unregistered, no cancel for it can
+    // still be in flight and hit the next query on the same pooled connection
+    public synchronized void cancel() {
+        cancelled = true;
+        for (Statement stmt : running) {
+            try {
+                stmt.cancel();
+            } catch (SQLException ignored) {
+                // Statement finished or its connection broke; nothing left to stop
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Registered before the check so cancel() either sees the statement or we see the flag
+    synchronized void register(Statement stmt) {
+        running.add(stmt);
+        if (cancelled) {
+            running.remove(stmt);
+            throw new CancellationException("Query cancelled");
+        }
+    }
+
+    // The error a statement failed with, as a CancellationException if this token stopped it
+    RuntimeException asCancellation(SQLException e) {
+        if (!cancelled || !QUERY_CANCELED.equals(e.getSQLState())) return null;
+        CancellationException c = new CancellationException("Query cancelled");
+        c.initCause(e);
+        return c;
+    }
+
+    synchronized void unregister(Statement stmt) {
+        running.remove(stmt);
+    }
+}
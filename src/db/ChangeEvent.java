@@ -0,0 +1,49 @@
+package db;
+
+/**
+ * One row change reported by the database change feed (see ChangeFeedListener).
+ */
+public final class ChangeEvent {
+
+    public enum Table { PATIENTS, DOCTORS, ROOMS, PATIENT_HISTORY }
+
+    public enum Operation { INSERT, UPDATE, DELETE }
+
+    private final Table table;
+    private final Operation operation;
+    private final String key;
+
+    public ChangeEvent(Table table, Operation operation, String key) {
+        this.table = table;
+        this.operation = operation;
+        this.key = key;
+    }
+
+    // Parses a trigger payload "table|op|key"; null for anything we don't recognise
+    static ChangeEvent parse(String payload) {
+        if (payload == null) return null;
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3) return null;
+        try {
+            return new ChangeEvent(
+                    Table.valueOf(parts[0].toUpperCase()),
+                    Operation.valueOf(parts[1].toUpperCase()),
+                    parts[2]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public Table getTable() { return table; }
+    public Operation getOperation() { return operation; }
+    public String getKey() { return key; }
+
+    public boolean isDelete() {
+        return operation == Operation.DELETE;
+    }
+
+    @Override
+    public String toString() {
+        return table + " " + operation + " " + key;
+    }
+}
@@ -0,0 +1,165 @@
+package db;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Background LISTEN on the channel the change-feed triggers NOTIFY (see SchemaMigrations), turning each
+ * payload into a ChangeEvent and handing the batch to every subscriber.
+ *
+ * Runs on its own daemon thread with a dedicated (non-pooled) connection, since a
+ * LISTEN belongs to one session. If that connection drops it reconnects with backoff
+ * and calls onResync(): notifications sent while disconnected are lost, so subscribers
+ * should reload rather than trust their deltas.
+ *
+ * Subscribers are called on the listener thread; UI code must hop to the EDT itself.
+ */
+public class ChangeFeedListener {
+
+    public static final String CHANNEL = "hms_changes";
+
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RECONNECT_MIN_MS = 1_000;
+    private static final long RECONNECT_MAX_MS = 30_000;
+
+    public interface Subscriber {
+        void onChanges(List<ChangeEvent> events);
+
+        // The feed was interrupted and events may have been missed
+        default void onResync() {}
+    }
+
+    private static ChangeFeedListener instance;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private volatile boolean running = false;
+    private volatile boolean listening = false;
+    private Thread thread;
+
+    private ChangeFeedListener() {}
+
+    public static synchronized ChangeFeedListener getInstance() {
+        if (instance == null) instance = new ChangeFeedListener();
+        return instance;
+    }
+
+    public void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+        start();
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    // True while LISTEN is active; when false, callers should fall back to reloading
+    public boolean isListening() {
+        return listening;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "hms-change-feed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+        thread = null;
+    }
+
+    private void run() {
+        Method getNotifications;
+        Method getParameter;
+        Class<?> pgConnection;
+        try {
+            // Driver classes via reflection: the driver is only on the runtime classpath
+            pgConnection = Class.forName("org.postgresql.PGConnection");
+            getNotifications = pgConnection.getMethod("getNotifications", int.class);
+            getParameter = Class.forName("org.postgresql.PGNotification").getMethod("getParameter");
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Change feed disabled: PostgreSQL driver does not support notifications");
+            running = false;
+            return;
+        }
+
+        long backoff = RECONNECT_MIN_MS;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection conn = dbConnecting.openDedicatedConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                Object pg = conn.unwrap(pgConnection);
+                listening = true;
+                backoff = RECONNECT_MIN_MS;
+                if (reconnecting) dispatchResync();
+
+                while (running) {
+                    Object[] notifications = poll(getNotifications, pg);
+                    if (notifications == null || notifications.length == 0) continue;
+
+                    List<ChangeEvent> events = new ArrayList<>(notifications.length);
+                    for (Object n : notifications) {
+                        ChangeEvent event = ChangeEvent.parse((String) getParameter.invoke(n));
+                        if (event != null) events.add(event);
+                    }
+                    if (!events.isEmpty()) dispatch(events);
+                }
+            } catch (SQLException | ReflectiveOperationException e) {
+                if (!running) break;
+                System.out.println("Change feed disconnected: " + e.getMessage());
+            } finally {
+                listening = false;
+            }
+
+            reconnecting = true;
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                break; // stop()
+            }
+            backoff = Math.min(backoff * 2, RECONNECT_MAX_MS);
+        }
+    }
+
+    // Blocks up to POLL_TIMEOUT_MS; a driver SQLException is unwrapped so it triggers a reconnect
+    private Object[] poll(Method getNotifications, Object pg) throws SQLException, ReflectiveOperationException {
+        try {
+            return (Object[]) getNotifications.invoke(pg, POLL_TIMEOUT_MS);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) throw (SQLException) e.getCause();
+            throw e;
+        }
+    }
+
+    private void dispatch(List<ChangeEvent> events) {
+        List<ChangeEvent> batch = java.util.Collections.unmodifiableList(events);
+        for (Subscriber s : subscribers) {
+            try {
+                s.onChanges(batch);
+            } catch (RuntimeException e) {
+                e.printStackTrace(); // One broken subscriber must not starve the others
+            }
+        }
+    }
+
+    private void dispatchResync() {
+        for (Subscriber s : subscribers) {
+            try {
+                s.onResync();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
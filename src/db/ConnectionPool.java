@@ -0,0 +1,367 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of physical PostgreSQL connections.
+ *
+ * Controllers keep calling dbConnecting.getConnection() and closing the result in
+ * try-with-resources; close() on a pooled connection hands it back here instead of
+ * tearing down the socket, so the TCP/auth handshake is paid once per physical connection.
+ */
+public class ConnectionPool {
+
+    private static ConnectionPool instance;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long connectionTimeoutMs;
+    private final long validationIntervalNanos;
+    private final int validationTimeoutSeconds;
+    private final long leakThresholdNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = new HashSet<>();
+    private int totalConnections = 0;
+    private boolean closed = false;
+
+    private final ScheduledExecutorService housekeeper;
+
+    public static synchronized ConnectionPool getInstance() {
+        if (instance == null) {
+            instance = new ConnectionPool();
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "db-pool-shutdown"));
+        }
+        return instance;
+    }
+
+    private ConnectionPool() {
+        this.maxSize = Math.max(1, config.getPoolMaxSize());
+        this.minSize = Math.max(0, Math.min(config.getPoolMinSize(), maxSize));
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getPoolIdleTimeoutMs());
+        this.connectionTimeoutMs = config.getPoolConnectionTimeoutMs();
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getPoolValidationIntervalMs());
+        this.validationTimeoutSeconds = config.getPoolValidationTimeoutSeconds();
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(config.getPoolLeakDetectionThresholdMs());
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 30, 30, TimeUnit.SECONDS);
+    }
+
+    // --- BORROW ---
+    public Connection getConnection() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(connectionTimeoutMs);
+
+        while (true) {
+            PooledConnection pc;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) throw new SQLException("Connection pool is closed");
+                    pc = idle.pollFirst(); // Most recently used first, keeps the warm ones busy
+                    if (pc != null) break;
+                    if (totalConnections < maxSize) {
+                        totalConnections++; // Reserve the slot before connecting outside the lock
+                        create = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLException("Timed out after " + connectionTimeoutMs
+                                + " ms waiting for a database connection (pool max " + maxSize + ")");
+                    }
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    pc = new PooledConnection(dbConnecting.openDedicatedConnection());
+                } catch (SQLException e) {
+                    releaseSlot();
+                    throw e;
+                }
+            } else if (!isUsable(pc)) {
+                discard(pc);
+                continue;
+            }
+
+            lock.lock();
+            try {
+                pc.markBorrowed(leakThresholdNanos > 0 ? new Throwable("Connection borrowed here") : null);
+                borrowed.add(pc);
+            } finally {
+                lock.unlock();
+            }
+            return pc.newHandle();
+        }
+    }
+
+    // Opens connections until the pool holds at least the configured minimum
+    public void warmUp() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalConnections >= minSize) return;
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                PooledConnection pc = new PooledConnection(dbConnecting.openDedicatedConnection());
+                lock.lock();
+                try {
+                    pc.lastReturned = System.nanoTime();
+                    idle.addLast(pc);
+                    available.signal();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException e) {
+                releaseSlot();
+                System.out.println("Connection pool warm-up failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    // Recently returned connections skip the validation round trip
+    private boolean isUsable(PooledConnection pc) {
+        if (System.nanoTime() - pc.lastReturned < validationIntervalNanos) return true;
+        try {
+            return pc.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // --- RETURN ---
+    private void release(PooledConnection pc) {
+        boolean reusable;
+        try {
+            reusable = !pc.physical.isClosed();
+            if (reusable && !pc.physical.getAutoCommit()) {
+                // A caller left a transaction open; never leak it into the next borrower
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            if (reusable) pc.physical.clearWarnings();
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        lock.lock();
+        try {
+            borrowed.remove(pc);
+            if (reusable && !closed) {
+                pc.lastReturned = System.nanoTime();
+                idle.addFirst(pc);
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(pc);
+    }
+
+    private void discard(PooledConnection pc) {
+        closeQuietly(pc);
+        releaseSlot();
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            totalConnections--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeQuietly(PooledConnection pc) {
+        pc.statementCache.closeAll();
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {
+            // Already broken, nothing left to release
+        }
+    }
+
+    // --- HOUSEKEEPING: idle eviction, minimum size, leak detection ---
+    private void housekeep() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        List<PooledConnection> leaked = new ArrayList<>();
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            if (closed) return;
+            Iterator<PooledConnection> it = idle.descendingIterator(); // Oldest returns first
+            while (it.hasNext() && totalConnections - evicted.size() > minSize) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastReturned > idleTimeoutNanos) {
+                    it.remove();
+                    evicted.add(pc);
+                }
+            }
+            if (leakThresholdNanos > 0) {
+                for (PooledConnection pc : borrowed) {
+                    if (!pc.leakReported && now - pc.borrowedAt > leakThresholdNanos) {
+                        pc.leakReported = true;
+                        leaked.add(pc);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pc : evicted) discard(pc);
+        for (PooledConnection pc : leaked) {
+            System.err.println("Possible connection leak: connection held for more than "
+                    + TimeUnit.NANOSECONDS.toMillis(leakThresholdNanos) + " ms");
+            if (pc.borrowStack != null) pc.borrowStack.printStackTrace();
+        }
+        warmUp();
+    }
+
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PooledConnection pc : toClose) discard(pc);
+    }
+
+    // --- STATS ---
+    public int getTotalConnections() {
+        lock.lock();
+        try { return totalConnections; } finally { lock.unlock(); }
+    }
+
+    public int getIdleConnections() {
+        lock.lock();
+        try { return idle.size(); } finally { lock.unlock(); }
+    }
+
+    // Wraps one physical connection; each borrow gets its own proxy handle
+    private class PooledConnection {
+        final Connection physical;
+        final StatementCache statementCache;
+        volatile long lastReturned = System.nanoTime();
+        long borrowedAt;
+        Throwable borrowStack;
+        boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = new StatementCache(physical, config.getStatementCacheSize());
+        }
+
+        void markBorrowed(Throwable stack) {
+            borrowedAt = System.nanoTime();
+            borrowStack = stack;
+            leakReported = false;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    // close() returns the connection to the pool; any use after close fails like a real connection
+    private class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean handleClosed = false;
+
+        Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pc.physical;
+                default:
+                    break;
+            }
+            if (handleClosed) throw new SQLException("Connection is closed");
+            String name = method.getName();
+            if ("prepareStatement".equals(name) && args.length == 1) {
+                return pc.statementCache.prepare((String) args[0], (Connection) proxy);
+            }
+            Object result;
+            try {
+                result = method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // Statements the cache does not handle are still timed (see QueryMetrics)
+            if ("createStatement".equals(name) || "prepareStatement".equals(name) || "prepareCall".equals(name)) {
+                String sql = name.equals("createStatement") ? null : (String) args[0];
+                return QueryMetrics.instrument((Statement) result, method.getReturnType(), sql, (Connection) proxy);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package db;
+
+import java.util.Locale;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for one controller query: which entity and method ran it,
+ * the SQL operation, the rows it returned (over all its result sets) and how long it
+ * took, from execute*() until the statement was closed or run again.
+ *
+ * Recorded with e.g. java -XX:StartFlightRecording:filename=ward.jfr ... and shown in
+ * JDK Mission Control under "Hospital Management". When no recording is running, start()
+ * returns null and nothing is allocated.
+ */
+@Name("hms.ControllerCall")
+@Label("Controller Call")
+@Category({"Hospital Management", "Database"})
+@Description("A statement run by a controller method, from execute until the statement was closed")
+@StackTrace(false)
+public class ControllerCallEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(ControllerCallEvent.class);
+
+    @Label("Entity")
+    String entity;
+
+    @Label("Method")
+    String method;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Failed")
+    boolean failed;
+
+    // Begins an event for caller ("DoctorController.getAllDoctors") if JFR is recording it
+    static ControllerCallEvent start(String caller, String sql) {
+        if (!TYPE.isEnabled()) return null;
+        ControllerCallEvent event = new ControllerCallEvent();
+        int dot = caller.indexOf('.');
+        String cls = dot > 0 ? caller.substring(0, dot) : caller;
+        event.entity = cls.endsWith("Controller") && cls.length() > 10 ? cls.substring(0, cls.length() - 10) : cls;
+        event.method = dot > 0 ? caller.substring(dot + 1) : caller;
+        event.operation = operationOf(sql);
+        event.sql = sql;
+        event.begin();
+        return event;
+    }
+
+    void finish(long rows, boolean failed) {
+        this.rows = rows;
+        this.failed = failed;
+        commit();
+    }
+
+    // First keyword of the statement, e.g. SELECT or UPDATE
+    private static String operationOf(String sql) {
+        String s = sql.trim();
+        int end = 0;
+        while (end < s.length() && Character.isLetter(s.charAt(end))) end++;
+        return end == 0 ? "?" : s.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+}
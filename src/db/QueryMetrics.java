@@ -0,0 +1,404 @@
+package db;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-statement JDBC metrics: call count, errors, rows returned and a latency histogram
+ * for every distinct (caller, SQL) pair run through a pooled connection.
+ *
+ * The caller is the first method on the stack outside the JDBC plumbing - for controller
+ * SQL that is the controller method, e.g. "DoctorController.getAllDoctors". Latency is
+ * the time spent in execute*(); rows are counted as the caller reads them, from the
+ * ResultSet execute*() returned or from getResultSet() (multi-result statements).
+ *
+ * Read the numbers with snapshot() or report(); when METRICS_DUMP_FILE is set the report
+ * is also written there on shutdown.
+ */
+public final class QueryMetrics {
+
+    // Distinct statements tracked; anything past this is folded into one OVERFLOW entry
+    private static final int MAX_STATEMENTS = 1000;
+    private static final Key OVERFLOW = new Key("(other)", "(statements beyond the first " + MAX_STATEMENTS + ")");
+
+    private static final ConcurrentHashMap<Key, StatementStats> STATS = new ConcurrentHashMap<>();
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    static {
+        String dumpFile = config.getMetricsDumpFile();
+        if (dumpFile != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    dumpTo(Paths.get(dumpFile));
+                } catch (IOException e) {
+                    System.err.println("Could not write query metrics to " + dumpFile + ": " + e.getMessage());
+                }
+            }, "db-metrics-dump"));
+        }
+    }
+
+    private QueryMetrics() {}
+
+    // --- READING ---
+
+    // All statements seen so far, most total time first
+    public static List<StatementStats> snapshot() {
+        List<StatementStats> list = new ArrayList<>(STATS.values());
+        list.sort(Comparator.comparingLong((StatementStats s) -> s.latency.getTotalNanos()).reversed());
+        return list;
+    }
+
+    // Stats for every statement run by one caller, e.g. "PatientController.getAllPatients"
+    public static List<StatementStats> forCaller(String caller) {
+        List<StatementStats> list = new ArrayList<>();
+        for (StatementStats s : snapshot()) {
+            if (s.caller.equals(caller)) list.add(s);
+        }
+        return list;
+    }
+
+    public static void reset() {
+        STATS.clear();
+    }
+
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Query metrics at ").append(LocalDateTime.now().withNano(0)).append('\n');
+        sb.append(String.format("Statement cache: %d hits, %d misses (%.1f%%), %d evictions%n%n",
+                StatementCache.getHits(), StatementCache.getMisses(),
+                StatementCache.getHitRate() * 100, StatementCache.getEvictions()));
+        sb.append(String.format("%8s %6s %9s %9s %9s %9s %9s %9s  %s%n",
+                "calls", "errors", "rows", "mean_ms", "p50_ms", "p95_ms", "p99_ms", "max_ms", "caller"));
+        for (StatementStats s : snapshot()) {
+            sb.append(s).append('\n');
+            sb.append("    ").append(s.sql.replaceAll("\\s+", " ").trim()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static void dumpTo(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Files.writeString(file, report());
+    }
+
+    // --- RECORDING (called by the pooled statements) ---
+
+    // Per-statement bookkeeping for the pooled statement wrappers: one Execution per
+    // execute*() call, kept open until the statement runs again or is closed
+    static final class Tracker {
+        private Execution current;
+
+        // Runs one execute*() call on target, timing it and counting the rows it returns.
+        // binds are the statement's parameters for the slow query log, or null
+        Object execute(Statement target, String sql, SlowQueryLog.Binds binds, Method method, Object[] args) throws Throwable {
+            end();
+            // Queries run under a CancelToken can be stopped from another thread
+            CancelToken token = CancelToken.current();
+            if (token != null) token.register(target);
+            try {
+                current = new Execution(sql);
+                return current.run(target, binds, method, args);
+            } catch (SQLException e) {
+                RuntimeException cancelled = token != null ? token.asCancellation(e) : null;
+                throw cancelled != null ? cancelled : e;
+            } finally {
+                if (token != null) token.unregister(target);
+            }
+        }
+
+        // Counts the rows of a ResultSet fetched after execute(), e.g. getResultSet()
+        Object track(Object result) {
+            if (current == null || !(result instanceof ResultSet)) return result;
+            return current.countRows((ResultSet) result);
+        }
+
+        // The statement is done (closed, or about to run again): ends its JFR event
+        void end() {
+            if (current != null) current.finish();
+            current = null;
+        }
+    }
+
+    private static final class Execution {
+        private final String caller;
+        private final String sql;
+        private final StatementStats stats;
+        private ControllerCallEvent event;
+        private long rows = 0;
+        private boolean failed = false;
+
+        Execution(String sql) {
+            this.caller = callerOf();
+            this.sql = sql;
+            this.stats = statsFor(caller, sql);
+            this.event = ControllerCallEvent.start(caller, sql);
+        }
+
+        Object run(Object target, SlowQueryLog.Binds binds, Method method, Object[] args) throws Throwable {
+            long start = System.nanoTime();
+            failed = true;
+            try {
+                Object result = method.invoke(target, args);
+                failed = false;
+                if (result instanceof ResultSet) return countRows((ResultSet) result);
+                long count = updateCount(result);
+                rows += count;
+                stats.rows.add(count);
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                stats.record(elapsed, failed);
+                SlowQueryLog.check(caller, sql, binds, elapsed, failed);
+            }
+        }
+
+        ResultSet countRows(ResultSet rs) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    new RowCounter(rs, this));
+        }
+
+        void rowRead() {
+            rows++;
+            stats.rows.increment();
+        }
+
+        void finish() {
+            if (event != null) event.finish(rows, failed);
+            event = null;
+        }
+    }
+
+    // Instruments a statement that does not go through the StatementCache
+    static Statement instrument(Statement stmt, Class<?> type, String sql, Connection owner) {
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{type},
+                new InstrumentedStatement(stmt, sql, owner));
+    }
+
+    private static StatementStats statsFor(String caller, String sql) {
+        Key key = new Key(caller, sql);
+        StatementStats stats = STATS.get(key);
+        if (stats != null) return stats;
+        if (STATS.size() >= MAX_STATEMENTS) key = OVERFLOW;
+        return STATS.computeIfAbsent(key, k -> new StatementStats(k.caller, k.sql));
+    }
+
+    // "Class.method" of the nearest frame that is not JDBC plumbing; lambdas report their enclosing method
+    private static String callerOf() {
+        return WALKER.walk(frames -> frames
+                .filter(f -> !isPlumbing(f.getClassName()))
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + enclosingMethod(f.getMethodName()))
+                .orElse("(unknown)"));
+    }
+
+    private static boolean isPlumbing(String className) {
+        return className.startsWith("java.") || className.startsWith("jdk.")
+                || className.startsWith("sun.") || className.startsWith("com.sun.")
+                || className.contains("$Proxy")
+                || className.equals("db.QueryMetrics") || className.startsWith("db.QueryMetrics$")
+                || className.equals("db.StatementCache") || className.startsWith("db.StatementCache$")
+                || className.equals("db.ConnectionPool") || className.startsWith("db.ConnectionPool$");
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int inner = name.indexOf('$');
+        return inner > 0 ? name.substring(0, inner) : name;
+    }
+
+    // "lambda$getDoctor$3" -> "getDoctor"
+    private static String enclosingMethod(String methodName) {
+        if (!methodName.startsWith("lambda$")) return methodName;
+        int end = methodName.indexOf('$', 7);
+        return end > 7 ? methodName.substring(7, end) : methodName;
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof Number) return Math.max(0, ((Number) result).longValue());
+        long total = 0;
+        if (result instanceof int[]) {
+            for (int n : (int[]) result) if (n > 0) total += n;
+        } else if (result instanceof long[]) {
+            for (long n : (long[]) result) if (n > 0) total += n;
+        }
+        return total;
+    }
+
+    // --- STATS ---
+    public static final class StatementStats {
+        private final String caller;
+        private final String sql;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        StatementStats(String caller, String sql) {
+            this.caller = caller;
+            this.sql = sql;
+        }
+
+        void record(long nanos, boolean failed) {
+            calls.increment();
+            if (failed) errors.increment();
+            latency.record(nanos);
+        }
+
+        public String getCaller() { return caller; }
+        public String getSql() { return sql; }
+        public long getCalls() { return calls.sum(); }
+        public long getErrors() { return errors.sum(); }
+        public long getRows() { return rows.sum(); }
+        public LatencyHistogram getLatency() { return latency; }
+
+        @Override
+        public String toString() {
+            return String.format("%8d %6d %9d %9.2f %9.2f %9.2f %9.2f %9.2f  %s",
+                    getCalls(), getErrors(), getRows(),
+                    latency.getMeanNanos() / 1e6,
+                    latency.getPercentileMillis(50),
+                    latency.getPercentileMillis(95),
+                    latency.getPercentileMillis(99),
+                    latency.getMaxNanos() / 1e6,
+                    caller);
+        }
+    }
+
+    private static final class Key {
+        final String caller;
+        final String sql;
+
+        Key(String caller, String sql) {
+            this.caller = caller;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return caller.equals(k.caller) && sql.equals(k.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(caller, sql);
+        }
+    }
+
+    // Plain or uncached statement: times execute*() and takes the SQL from its argument if needed
+    private static final class InstrumentedStatement implements InvocationHandler {
+        private final Statement stmt;
+        private final String sql;
+        private final Connection owner;
+        private final SlowQueryLog.Binds binds;
+        private final Tracker tracker = new Tracker();
+        private ResultSet lastResult;
+
+        InstrumentedStatement(Statement stmt, String sql, Connection owner) {
+            this.stmt = stmt;
+            this.sql = sql;
+            this.owner = owner;
+            this.binds = sql != null && SlowQueryLog.isEnabled() ? new SlowQueryLog.Binds() : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (lastResult != null) lastResult.close(); // The driver would close only its own
+                    stmt.close();
+                    tracker.end();
+                    return null;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Instrumented" + stmt;
+                default:
+                    break;
+            }
+            if (method.getName().startsWith("execute")) {
+                String text = sql;
+                if (text == null) {
+                    text = (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : "(batch)";
+                }
+                Object result = tracker.execute(stmt, text, binds, method, args);
+                if (result instanceof ResultSet) lastResult = (ResultSet) result;
+                return result;
+            }
+            if (binds != null) binds.capture(method, args);
+            try {
+                Object result = method.invoke(stmt, args);
+                if ("getResultSet".equals(method.getName())) {
+                    result = tracker.track(result);
+                    if (result != null) lastResult = (ResultSet) result;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Counts the rows a caller actually steps through
+    private static final class RowCounter implements InvocationHandler {
+        private final ResultSet rs;
+        private final Execution execution;
+
+        RowCounter(ResultSet rs, Execution execution) {
+            this.rs = rs;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next":
+                    boolean more = rs.next();
+                    if (more) execution.rowRead();
+                    return more;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Counted" + rs;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(rs, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
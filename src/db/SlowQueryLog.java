@@ -0,0 +1,206 @@
+package db;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs every statement slower than SLOW_QUERY_THRESHOLD_MS with its caller, elapsed time,
+ * SQL and bind values, to SLOW_QUERY_LOG_FILE (or stderr when unset).
+ *
+ * Bind values are redacted before they are written: numbers and booleans are kept, text
+ * becomes its length (keeping LIKE wildcards at either end) and anything else its type,
+ * so the log never holds patient data.
+ *
+ * With SLOW_QUERY_EXPLAIN=true a slow SELECT is run again under EXPLAIN (ANALYZE, BUFFERS)
+ * with the real values, on the log's own thread and connection, and the plan is added to
+ * the entry. Each statement is explained at most once per EXPLAIN_INTERVAL_MS.
+ */
+public final class SlowQueryLog {
+
+    private static final long EXPLAIN_INTERVAL_MS = 5 * 60_000;
+    private static final int EXPLAIN_TIMEOUT_S = 30;
+    private static final int MAX_QUEUED = 100; // Entries past this are dropped, not queued
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private static final long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getSlowQueryThresholdMs()));
+    private static final boolean explain = config.isSlowQueryExplainEnabled();
+    private static final String logFile = config.getSlowQueryLogFile();
+
+    // Single writer thread: entries stay in order and EXPLAINs never pile up on the database
+    private static final ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED), r -> {
+                Thread t = new Thread(r, "db-slow-query-log");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    // Only touched on the writer thread
+    private static final Map<String, Long> lastExplained = new HashMap<>();
+    private static Connection explainConnection;
+
+    private SlowQueryLog() {}
+
+    public static boolean isEnabled() {
+        return thresholdNanos > 0;
+    }
+
+    // Called by QueryMetrics after every statement; binds may be null for plain statements
+    static void check(String caller, String sql, Binds binds, long elapsedNanos, boolean failed) {
+        if (thresholdNanos <= 0 || elapsedNanos < thresholdNanos) return;
+        Binds values = binds == null ? null : binds.copy();
+        LocalDateTime at = LocalDateTime.now();
+        writer.execute(() -> write(at, caller, sql, values, elapsedNanos, failed));
+    }
+
+    private static void write(LocalDateTime at, String caller, String sql, Binds binds, long elapsedNanos, boolean failed) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(at.format(TIME))
+                .append(String.format(Locale.ROOT, "  %.1f ms  ", elapsedNanos / 1e6))
+                .append(caller)
+                .append(failed ? "  (failed)" : "")
+                .append('\n');
+        sb.append("  SQL:   ").append(sql.replaceAll("\\s+", " ").trim()).append('\n');
+        if (binds != null && !binds.isEmpty()) sb.append("  Binds: ").append(binds.redacted()).append('\n');
+        if (explain && !failed && isExplainable(sql) && dueForExplain(caller + '\n' + sql)) {
+            sb.append("  Plan:\n").append(explain(sql, binds));
+        }
+
+        if (logFile == null) {
+            System.err.print("Slow query: " + sb);
+            return;
+        }
+        try {
+            Path path = Paths.get(logFile);
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Files.writeString(path, sb.append('\n'), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Could not write slow query log " + logFile + ": " + e.getMessage());
+        }
+    }
+
+    // --- EXPLAIN ---
+
+    // ANALYZE really runs the statement, so only plain reads qualify
+    private static boolean isExplainable(String sql) {
+        String s = sql.trim().toUpperCase(Locale.ROOT);
+        return s.startsWith("SELECT") && !s.contains("FOR UPDATE") && !s.contains("FOR SHARE");
+    }
+
+    private static boolean dueForExplain(String key) {
+        long now = System.currentTimeMillis();
+        Long last = lastExplained.get(key);
+        if (last != null && now - last < EXPLAIN_INTERVAL_MS) return false;
+        lastExplained.put(key, now);
+        return true;
+    }
+
+    // A dedicated connection: it is neither instrumented nor competing with the UI for pool slots
+    private static String explain(String sql, Binds binds) {
+        StringBuilder plan = new StringBuilder();
+        try {
+            if (explainConnection == null || !explainConnection.isValid(2)) {
+                closeExplainConnection();
+                explainConnection = dbConnecting.openDedicatedConnection();
+            }
+            try (PreparedStatement ps = explainConnection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                ps.setQueryTimeout(EXPLAIN_TIMEOUT_S);
+                if (binds != null) binds.applyTo(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) plan.append("    ").append(rs.getString(1)).append('\n');
+                }
+            }
+        } catch (SQLException | ReflectiveOperationException e) {
+            closeExplainConnection();
+            plan.append("    (EXPLAIN failed: ").append(e.getMessage()).append(")\n");
+        }
+        return plan.toString();
+    }
+
+    private static void closeExplainConnection() {
+        if (explainConnection == null) return;
+        try {
+            explainConnection.close();
+        } catch (SQLException ignored) {
+            // Broken connection; a new one is opened next time
+        }
+        explainConnection = null;
+    }
+
+    // --- BIND VALUES ---
+
+    // The set*() calls made on one statement, replayable onto another
+    static final class Binds {
+        private final TreeMap<Integer, Object[]> calls = new TreeMap<>(); // index -> {Method, args}
+
+        // Records method if it is a parameter setter, e.g. setString(1, "x"); other calls are ignored
+        void capture(Method method, Object[] args) {
+            String name = method.getName();
+            if ("clearParameters".equals(name)) {
+                calls.clear();
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                calls.put((Integer) args[0], new Object[]{method, args.clone()});
+            }
+        }
+
+        boolean isEmpty() {
+            return calls.isEmpty();
+        }
+
+        Binds copy() {
+            Binds b = new Binds();
+            b.calls.putAll(calls);
+            return b;
+        }
+
+        void applyTo(PreparedStatement ps) throws ReflectiveOperationException {
+            for (Object[] call : calls.values()) {
+                ((Method) call[0]).invoke(ps, (Object[]) call[1]);
+            }
+        }
+
+        String redacted() {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<Integer, Object[]> e : calls.entrySet()) {
+                if (sb.length() > 0) sb.append(", ");
+                Method method = (Method) e.getValue()[0];
+                Object[] args = (Object[]) e.getValue()[1];
+                sb.append('$').append(e.getKey()).append('=')
+                        .append("setNull".equals(method.getName()) ? "NULL" : redact(args[1]));
+            }
+            return sb.toString();
+        }
+
+        private static String redact(Object value) {
+            if (value == null) return "NULL";
+            if (value instanceof Number || value instanceof Boolean) return value.toString();
+            if (value instanceof String) {
+                String s = (String) value;
+                boolean lead = s.startsWith("%");
+                boolean trail = s.length() > 1 && s.endsWith("%") && !s.endsWith("\\%");
+                int len = s.length() - (lead ? 1 : 0) - (trail ? 1 : 0);
+                return "'" + (lead ? "%" : "") + "<" + len + " chars>" + (trail ? "%" : "") + "'";
+            }
+            return "<" + value.getClass().getSimpleName() + ">";
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one pooled physical connection, keyed by SQL text.
+ *
+ * A statement is checked out while a caller uses it and checked back in when the caller
+ * closes it, so repeated controller queries reuse the same driver statement. Once a
+ * statement has run DB_PREPARE_THRESHOLD times the driver switches it to a named
+ * server-side statement and Postgres stops re-parsing and re-planning it.
+ */
+public class StatementCache {
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    private final Connection physical;
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+    }
+
+    // Returns a statement whose close() puts it back into this cache
+    PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        if (maxSize <= 0) {
+            return (PreparedStatement) QueryMetrics.instrument(
+                    physical.prepareStatement(sql), PreparedStatement.class, sql, owner);
+        }
+
+        PreparedStatement stmt;
+        synchronized (statements) {
+            stmt = statements.remove(sql);
+        }
+        if (stmt != null && !stmt.isClosed()) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            stmt = physical.prepareStatement(sql);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new CachedStatement(sql, stmt, owner));
+    }
+
+    private void checkIn(String sql, PreparedStatement stmt) {
+        List<PreparedStatement> toClose = new ArrayList<>();
+        synchronized (statements) {
+            if (statements.containsKey(sql)) {
+                toClose.add(stmt); // Same SQL was checked out twice; keep only one copy
+            } else {
+                statements.put(sql, stmt);
+                Iterator<PreparedStatement> it = statements.values().iterator();
+                while (statements.size() > maxSize && it.hasNext()) {
+                    toClose.add(it.next());
+                    it.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        for (PreparedStatement s : toClose) closeQuietly(s);
+    }
+
+    // Called when the physical connection is discarded
+    void closeAll() {
+        List<PreparedStatement> toClose;
+        synchronized (statements) {
+            toClose = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        for (PreparedStatement s : toClose) closeQuietly(s);
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException ignored) {
+            // Statement belongs to a broken connection
+        }
+    }
+
+    // --- STATS (across all pooled connections) ---
+    public static long getHits() { return hits.get(); }
+    public static long getMisses() { return misses.get(); }
+    public static long getEvictions() { return evictions.get(); }
+
+    public static double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    // Logical statement handed to callers; close() resets it and returns it to the cache
+    private class CachedStatement implements InvocationHandler {
+        private final String sql;
+        private final PreparedStatement stmt;
+        private final Connection owner;
+        private final SlowQueryLog.Binds binds = SlowQueryLog.isEnabled() ? new SlowQueryLog.Binds() : null;
+        private final QueryMetrics.Tracker tracker = new QueryMetrics.Tracker();
+        private ResultSet lastResult;
+        private boolean closed = false;
+
+        CachedStatement(String sql, PreparedStatement stmt, Connection owner) {
+            this.sql = sql;
+            this.stmt = stmt;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        tracker.end();
+                        recycle();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || stmt.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + stmt;
+                default:
+                    break;
+            }
+            if (closed) throw new SQLException("Statement is closed");
+
+            if (!method.getName().startsWith("execute")) {
+                if (binds != null) binds.capture(method, args);
+                try {
+                    Object result = method.invoke(stmt, args);
+                    if ("getResultSet".equals(method.getName())) {
+                        result = tracker.track(result); // Multi-result statements, see DashboardController
+                        if (result != null) lastResult = (ResultSet) result;
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            Object result = tracker.execute(stmt, sql, binds, method, args);
+            if (result instanceof ResultSet) lastResult = (ResultSet) result;
+            return result;
+        }
+
+        // Callers often leave the ResultSet open; a real close() would have closed it for them
+        private void recycle() {
+            try {
+                if (lastResult != null) lastResult.close();
+                stmt.clearParameters();
+                stmt.clearBatch();
+                stmt.clearWarnings();
+                checkIn(sql, stmt);
+            } catch (SQLException e) {
+                closeQuietly(stmt);
+            }
+        }
+    }
+
+    // Keeps the driver's own per-connection query cache in step with ours
+    static Map<String, String> driverProperties() {
+        Map<String, String> props = new LinkedHashMap<>();
+        props.put("prepareThreshold", String.valueOf(config.getPrepareThreshold()));
+        props.put("preparedStatementCacheQueries", String.valueOf(Math.max(config.getStatementCacheSize(), 1)));
+        return props;
+    }
+}
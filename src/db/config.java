@@ -36,4 +36,125 @@ public class config {
     public static String getDbHost() {
         return properties.getProperty("HOST");
     }
+
+    // --- CONNECTION POOL (all optional, defaults suit a single ward terminal) ---
+    public static int getPoolMinSize() {
+        return getInt("DB_POOL_MIN", 2);
+    }
+
+    public static int getPoolMaxSize() {
+        return getInt("DB_POOL_MAX", 10);
+    }
+
+    public static long getPoolIdleTimeoutMs() {
+        return getInt("DB_POOL_IDLE_TIMEOUT_MS", 300_000);
+    }
+
+    public static long getPoolConnectionTimeoutMs() {
+        return getInt("DB_POOL_CONNECTION_TIMEOUT_MS", 10_000);
+    }
+
+    // Connections idle for less than this are handed out without a validation round trip;
+    // one that died meanwhile fails its first query, is closed by the driver and dropped on release
+    public static long getPoolValidationIntervalMs() {
+        return getInt("DB_POOL_VALIDATION_INTERVAL_MS", 30_000);
+    }
+
+    public static int getPoolValidationTimeoutSeconds() {
+        return getInt("DB_POOL_VALIDATION_TIMEOUT_S", 2);
+    }
+
+    // 0 disables leak detection
+    public static long getPoolLeakDetectionThresholdMs() {
+        return getInt("DB_POOL_LEAK_THRESHOLD_MS", 30_000);
+    }
+
+    // --- STATEMENT CACHE ---
+    // Prepared statements kept per pooled connection (0 disables the cache)
+    public static int getStatementCacheSize() {
+        return getInt("DB_STATEMENT_CACHE_SIZE", 50);
+    }
+
+    // Executions after which the driver switches a statement to a server-side prepare
+    public static int getPrepareThreshold() {
+        return getInt("DB_PREPARE_THRESHOLD", 3);
+    }
+
+    // --- SEARCH ---
+    // Maximum rows a search box query returns (best matches first)
+    public static int getSearchResultLimit() {
+        return getInt("SEARCH_RESULT_LIMIT", 200);
+    }
+
+    // --- REFERENCE DATA CACHE (doctors, rooms) ---
+    // Seconds a cached doctor/room stays valid; 0 disables the cache
+    public static int getCacheTtlSeconds() {
+        return getInt("CACHE_TTL_SECONDS", 60);
+    }
+
+    public static int getCacheMaxEntries() {
+        return getInt("CACHE_MAX_ENTRIES", 1000);
+    }
+
+    // --- BACKGROUND REFRESH ---
+    // Panel refreshes allowed to query the database at the same time (keep below DB_POOL_MAX)
+    public static int getRefreshMaxConcurrency() {
+        return getInt("REFRESH_MAX_CONCURRENCY", 4);
+    }
+
+    // Delay after the dashboard opens before the other tabs are built in the background (0 = on first visit only)
+    public static int getPanelPrewarmDelayMs() {
+        return getInt("PANEL_PREWARM_DELAY_MS", 1500);
+    }
+
+    // --- DIAGNOSTICS ---
+    // File the per-query metrics report (see QueryMetrics) is written to on exit; unset = no dump
+    public static String getMetricsDumpFile() {
+        String value = properties.getProperty("METRICS_DUMP_FILE");
+        return (value == null || value.trim().isEmpty()) ? null : value.trim();
+    }
+
+    // Statements slower than this go to the slow query log (see SlowQueryLog); 0 disables it
+    public static int getSlowQueryThresholdMs() {
+        return getInt("SLOW_QUERY_THRESHOLD_MS", 500);
+    }
+
+    // Slow query log file; unset = stderr
+    public static String getSlowQueryLogFile() {
+        String value = properties.getProperty("SLOW_QUERY_LOG_FILE");
+        return (value == null || value.trim().isEmpty()) ? null : value.trim();
+    }
+
+    // Re-runs slow SELECTs under EXPLAIN (ANALYZE, BUFFERS) and logs the plan
+    public static boolean isSlowQueryExplainEnabled() {
+        return getBoolean("SLOW_QUERY_EXPLAIN", false);
+    }
+
+    // Event Dispatch Thread work longer than this is reported as a UI stall (see EdtWatchdog); 0 disables it
+    public static int getEdtStallThresholdMs() {
+        return getInt("EDT_STALL_THRESHOLD_MS", 200);
+    }
+
+    // Reads a true/false key, falling back to the default when it is missing or malformed
+    private static boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) return defaultValue;
+        value = value.trim();
+        if (value.equalsIgnoreCase("true")) return true;
+        if (value.equalsIgnoreCase("false")) return false;
+        System.out.println("Warning: Invalid value for " + key + " in .env, using " + defaultValue);
+        return defaultValue;
+    }
+
+    // Reads an integer key, falling back to the default when it is missing or malformed
+    private static int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Warning: Invalid value for " + key + " in .env, using " + defaultValue);
+            return defaultValue;
+        }
+    }
 }
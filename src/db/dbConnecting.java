@@ -3,11 +3,26 @@ package db;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 public class dbConnecting {
 
+    private static boolean driverLoaded = false;
+
+    // Hands out a pooled connection; closing it returns it to the pool. Every statement
+    // run on it is recorded in QueryMetrics
     public static Connection getConnection() {
-        Connection conn = null;
+        try {
+            return ConnectionPool.getInstance().getConnection();
+        } catch (SQLException e) {
+            System.out.println("Connection Failed!");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Opens a brand-new physical connection (used by the pool itself)
+    public static Connection openDedicatedConnection() throws SQLException {
         // 1. Get values using our new standard Java Config class
         String host = config.getDbHost();
         String port = config.getDbPort();
@@ -18,17 +33,24 @@ public class dbConnecting {
         // 2. Build URL
         String url = "jdbc:postgresql://" + host + ":" + port + "/" + dbName;
 
+        Properties props = new Properties();
+        if (user != null) props.setProperty("user", user);
+        if (pass != null) props.setProperty("password", pass);
+        props.putAll(StatementCache.driverProperties());
+
+        loadDriver();
+        return DriverManager.getConnection(url, props);
+    }
+
+    private static synchronized void loadDriver() {
+        if (driverLoaded) return;
         try {
-            // Ensure the driver is loaded
+            // Ensure the driver is loaded (once, not per connection)
             Class.forName("org.postgresql.Driver");
-            conn = DriverManager.getConnection(url, user, pass);
+            driverLoaded = true;
         } catch (ClassNotFoundException e) {
             System.out.println("PostgreSQL JDBC Driver not found!");
             e.printStackTrace();
-        } catch (SQLException e) {
-            System.out.println("Connection Failed!");
-            e.printStackTrace();
         }
-        return conn;
     }
 }
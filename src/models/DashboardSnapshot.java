@@ -0,0 +1,37 @@
+package models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable view of everything the home dashboard shows, fetched in a single round trip
+public class DashboardSnapshot {
+    private final int patientCount;
+    private final int doctorCount;
+    private final int totalRooms;
+    private final int occupiedRooms;
+    private final List<Patient> recentPatients;
+    private final Map<String, Integer> specializationStats;
+    private final List<Doctor> availableDoctors;
+
+    public DashboardSnapshot(int patientCount, int doctorCount, int totalRooms, int occupiedRooms,
+                             List<Patient> recentPatients, Map<String, Integer> specializationStats,
+                             List<Doctor> availableDoctors) {
+        this.patientCount = patientCount;
+        this.doctorCount = doctorCount;
+        this.totalRooms = totalRooms;
+        this.occupiedRooms = occupiedRooms;
+        this.recentPatients = List.copyOf(recentPatients);
+        this.specializationStats = Collections.unmodifiableMap(new LinkedHashMap<>(specializationStats));
+        this.availableDoctors = List.copyOf(availableDoctors);
+    }
+
+    public int getPatientCount() { return patientCount; }
+    public int getDoctorCount() { return doctorCount; }
+    public int getTotalRooms() { return totalRooms; }
+    public int getOccupiedRooms() { return occupiedRooms; }
+    public List<Patient> getRecentPatients() { return recentPatients; }
+    public Map<String, Integer> getSpecializationStats() { return specializationStats; }
+    public List<Doctor> getAvailableDoctors() { return availableDoctors; }
+}
@@ -0,0 +1,36 @@
+package models;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// One page of the patient list plus the cursor to continue from
+public class PatientPage {
+    private final List<Patient> items;
+    private final Cursor nextCursor;
+    private final boolean hasMore;
+
+    public PatientPage(List<Patient> items, Cursor nextCursor, boolean hasMore) {
+        this.items = List.copyOf(items);
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Patient> getItems() { return items; }
+    public Cursor getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return hasMore; }
+
+    // Position after the last row of a page: (admission_date, patient_id) in list order.
+    // admissionDate may be null, those rows sort last.
+    public static class Cursor {
+        private final LocalDate admissionDate;
+        private final String patientId;
+
+        public Cursor(LocalDate admissionDate, String patientId) {
+            this.admissionDate = admissionDate;
+            this.patientId = patientId;
+        }
+
+        public LocalDate getAdmissionDate() { return admissionDate; }
+        public String getPatientId() { return patientId; }
+    }
+}
@@ -0,0 +1,25 @@
+package models;
+
+// KPI counters for the patient screen, computed server-side in one statement
+public class PatientStats {
+    private final int totalPatients;
+    private final int admittedToday;
+    private final int dischargedToday;
+    private final int availableRooms;
+    private final int totalRooms;
+
+    public PatientStats(int totalPatients, int admittedToday, int dischargedToday,
+                        int availableRooms, int totalRooms) {
+        this.totalPatients = totalPatients;
+        this.admittedToday = admittedToday;
+        this.dischargedToday = dischargedToday;
+        this.availableRooms = availableRooms;
+        this.totalRooms = totalRooms;
+    }
+
+    public int getTotalPatients() { return totalPatients; }
+    public int getAdmittedToday() { return admittedToday; }
+    public int getDischargedToday() { return dischargedToday; }
+    public int getAvailableRooms() { return availableRooms; }
+    public int getTotalRooms() { return totalRooms; }
+}
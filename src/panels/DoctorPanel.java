@@ -1,6 +1,7 @@
 package panels;
 
 import controllers.HospitalManagementController;
+import db.ChangeEvent;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -12,21 +13,29 @@ import java.util.Set;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 
 import models.*;
 
+import utils.CellRenderers;
+import utils.CellRenderers.Badge;
+import utils.CellRenderers.Profile;
+import utils.DebouncedSearch;
+import utils.EntityTableModel;
 import utils.IconUtils;
 import utils.ModernUI;
+import utils.RefreshScheduler;
 
 public class DoctorPanel extends JPanel {
 
     private HospitalManagementController hmc;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<DoctorRow> tableModel;
     private JTable table;
     private JTextField txtSearch;
     private boolean isAdmin;
 
+    // Stats Labels
+    private JLabel lblTotalDoctors, lblCardiology, lblNeurology, lblPediatrics;
+
     // Modern Color Palette
     private Color primaryBlue = new Color(13, 110, 253);
     private Color bgLight = new Color(245, 247, 251);
@@ -63,9 +72,13 @@ public class DoctorPanel extends JPanel {
         // --- 2. CENTER SECTION (Table) ---
         String[] columns = {"Doctor Name", "Specialization", "Patients", "Availability"};
         
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        tableModel = new EntityTableModel<>(columns,
+            r -> doctorProfile(r.doctor),
+            r -> specializationBadge(r.doctor.getSpecialization()),
+            r -> r.patientCount + " Patients",
+            r -> r.patientCount < 10 ? "Available" : "Busy"
+        );
+        tableModel.setKeyFunction(r -> r.doctor.getDoctorId());
         
         table = new JTable(tableModel);
         setupTableStyle();
@@ -133,36 +146,44 @@ public class DoctorPanel extends JPanel {
         JPanel panel = new JPanel(new GridLayout(1, 4, 20, 0));
         panel.setOpaque(false);
         
-        // Calculate real stats
-        int totalDoctors = hmc.getDoctorCtrl().getAllDoctors().size();
-        
-        // Count by specialization (example with common specializations)
-        int cardiology = countBySpec("Cardiology");
-        int neurology = countBySpec("Neurology");
-        int pediatrics = countBySpec("Pediatrics");
+        // Figures arrive with the doctor list (see updateStats)
+        lblTotalDoctors = new JLabel("...");
+        lblCardiology = new JLabel("...");
+        lblNeurology = new JLabel("...");
+        lblPediatrics = new JLabel("...");
         
-        panel.add(ModernUI.createStatsCard("Total Doctors", String.valueOf(totalDoctors), "Active", 
+        panel.add(ModernUI.createStatsCard("Total Doctors", lblTotalDoctors, new JLabel("Active"), 
             IconUtils.createIcon(IconUtils.ICON_DOCTOR, 32, primaryBlue),
             new Color(230, 240, 255), primaryBlue));
             
-        panel.add(ModernUI.createStatsCard("Cardiology", String.valueOf(cardiology), "Specialists", 
+        panel.add(ModernUI.createStatsCard("Cardiology", lblCardiology, new JLabel("Specialists"), 
             IconUtils.createIcon(IconUtils.ICON_HEART, 32, new Color(220, 53, 69)), 
             new Color(255, 235, 235), new Color(220, 53, 69)));
             
-        panel.add(ModernUI.createStatsCard("Neurology", String.valueOf(neurology), "Specialists", 
+        panel.add(ModernUI.createStatsCard("Neurology", lblNeurology, new JLabel("Specialists"), 
             IconUtils.createIcon(IconUtils.ICON_BRAIN, 32, new Color(111, 66, 193)), 
             new Color(240, 230, 255), new Color(111, 66, 193)));
             
-        panel.add(ModernUI.createStatsCard("Pediatrics", String.valueOf(pediatrics), "Specialists", 
+        panel.add(ModernUI.createStatsCard("Pediatrics", lblPediatrics, new JLabel("Specialists"), 
             IconUtils.createIcon(IconUtils.ICON_BABY, 32, new Color(255, 193, 7)), 
             new Color(255, 245, 220), new Color(255, 193, 7)));
         
         return panel;
     }
 
-    private int countBySpec(String spec) {
+    // Counts from the (cached) doctor list, read in the background
+    private void updateStats() {
+        RefreshScheduler.shared().submit("doctors.stats", () -> hmc.getDoctorCtrl().getAllDoctors(), all -> {
+            lblTotalDoctors.setText(String.valueOf(all.size()));
+            lblCardiology.setText(String.valueOf(countBySpec(all, "Cardiology")));
+            lblNeurology.setText(String.valueOf(countBySpec(all, "Neurology")));
+            lblPediatrics.setText(String.valueOf(countBySpec(all, "Pediatrics")));
+        });
+    }
+
+    private static int countBySpec(List<Doctor> doctors, String spec) {
         int count = 0;
-        for (Doctor d : hmc.getDoctorCtrl().getAllDoctors()) {
+        for (Doctor d : doctors) {
             if (d.getSpecialization() != null && 
                 d.getSpecialization().toLowerCase().contains(spec.toLowerCase())) {
                 count++;
@@ -287,158 +308,112 @@ public class DoctorPanel extends JPanel {
         table.getColumnModel().getColumn(3).setCellRenderer(new AvailabilityRenderer());
     }
 
+    // Renderers are created once per table and only reconfigured per cell (see CellRenderers)
+    private static final Font FONT_NAME = new Font("Segoe UI", Font.BOLD, 14);
+    private static final Font FONT_ID = new Font("Segoe UI", Font.PLAIN, 11);
+    private static final Font FONT_AVATAR = new Font("Segoe UI", Font.BOLD, 18);
+    private static final Font FONT_BADGE = new Font("Segoe UI", Font.BOLD, 12);
+    private static final Font FONT_STATUS = new Font("Segoe UI", Font.PLAIN, 13);
+    private static final Color AVATAR_BG = new Color(230, 240, 255);
+    private static final Color AVAILABLE = new Color(25, 135, 84);
+    private static final Color BUSY = new Color(255, 193, 7);
+
+    // Name, ID and initial as the table shows them; computed once per row by the model
+    private static Profile doctorProfile(Doctor d) {
+        String name = d.getName();
+        String initial = name.length() > 1 ? name.substring(0, 1).toUpperCase() : "D";
+        // Truncate long names
+        if (name.length() > 15) {
+            return new Profile(initial, "Dr. " + name.substring(0, 12) + "...", "ID: " + d.getDoctorId(), null, "Dr. " + name);
+        }
+        return new Profile(initial, "Dr. " + name, "ID: " + d.getDoctorId(), null, null);
+    }
+
+    // Assign colors based on specialization
+    private static Badge specializationBadge(String spec) {
+        String s = spec.toLowerCase();
+        if (s.contains("cardio")) return new Badge(spec, new Color(255, 235, 235), new Color(220, 53, 69), null);
+        if (s.contains("neuro")) return new Badge(spec, new Color(240, 230, 255), new Color(111, 66, 193), null);
+        if (s.contains("ortho")) return new Badge(spec, new Color(220, 240, 255), new Color(13, 110, 253), null);
+        if (s.contains("pediatr")) return new Badge(spec, new Color(255, 245, 220), new Color(255, 193, 7), null);
+        return new Badge(spec, new Color(240, 240, 240), new Color(100, 100, 100), null);
+    }
+
     // 1. Doctor Info Renderer (Avatar + Name + ID)
-    class DoctorInfoRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, 
-                boolean isSelected, boolean hasFocus, int row, int column) {
+    class DoctorInfoRenderer extends CellRenderers.CellPanel {
+        private final CellRenderers.Avatar avatar = new CellRenderers.Avatar(40, 40, FONT_AVATAR, primaryBlue);
+        private final CellRenderers.CellLabel lblName = new CellRenderers.CellLabel(FONT_NAME, textDark);
+        private final CellRenderers.CellLabel lblId = new CellRenderers.CellLabel(FONT_ID, Color.GRAY);
+
+        DoctorInfoRenderer() {
             // OUTER PANEL: Centers the inner content
-            JPanel outer = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 5));
-            outer.setOpaque(true);
-            outer.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
+            super(new FlowLayout(FlowLayout.CENTER, 0, 5));
+
             // INNER CONTAINER: Fixed width for perfect vertical alignment
-            JPanel content = new JPanel(new BorderLayout(10, 0)); 
-            content.setPreferredSize(new Dimension(200, 40)); 
+            JPanel content = new JPanel(new BorderLayout(10, 0));
+            content.setPreferredSize(new Dimension(200, 40));
             content.setOpaque(false);
-            
-            String fullString = (String) value; // "DR-101:Name"
-            String[] parts = fullString.split(":");
-            String id = parts.length > 0 ? parts[0] : "";
-            String name = parts.length > 1 ? parts[1] : "";
-            
-            // Avatar
-            JLabel avatar = new JLabel() {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(new Color(230, 240, 255));
-                    g2.fillOval(0, 0, 40, 40);
-                    g2.setColor(primaryBlue);
-                    g2.setFont(new Font("Segoe UI", Font.BOLD, 18));
-                    String initial = name.length() > 1 ? name.substring(0, 1).toUpperCase() : "D";
-                    g2.drawString(initial, 14, 26);
-                }
-            };
-            avatar.setPreferredSize(new Dimension(40, 40));
-            
+
             // Text Panel
             JPanel textPanel = new JPanel(new GridLayout(2, 1));
             textPanel.setOpaque(false);
-            
-            JLabel lblName = new JLabel("Dr. " + name);
-            lblName.setFont(new Font("Segoe UI", Font.BOLD, 14));
-            // Truncate long names
-            if (name.length() > 15) {
-                lblName.setText("Dr. " + name.substring(0, 12) + "...");
-                lblName.setToolTipText("Dr. " + name);
-            }
-            
-            JLabel lblId = new JLabel("ID: " + id);
-            lblId.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-            lblId.setForeground(Color.GRAY);
-            
             textPanel.add(lblName);
             textPanel.add(lblId);
-            
+
             content.add(avatar, BorderLayout.WEST);
             content.add(textPanel, BorderLayout.CENTER);
-            
-            outer.add(content);
-            return outer;
+            add(content);
+        }
+
+        @Override
+        protected void configure(JTable table, Object value, boolean isSelected) {
+            Profile p = (Profile) value;
+            avatar.set(AVATAR_BG, p.initial, null);
+            lblName.setText(p.title);
+            lblId.setText(p.subtitle);
+            setToolTipText(p.tooltip);
         }
     }
 
     // 2. Specialization Renderer (Colored badge)
-    class SpecializationRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, 
-                boolean isSelected, boolean hasFocus, int row, int column) {
-            
-            // "justify-content: center" -> FlowLayout.CENTER
-            JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15));
-            panel.setOpaque(true);
-            panel.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
-            String spec = (String) value;
-            Color bg, fg;
-            
-            // Assign colors based on specialization
-            if (spec.toLowerCase().contains("cardio")) {
-                bg = new Color(255, 235, 235); fg = new Color(220, 53, 69);
-            } else if (spec.toLowerCase().contains("neuro")) {
-                bg = new Color(240, 230, 255); fg = new Color(111, 66, 193);
-            } else if (spec.toLowerCase().contains("ortho")) {
-                bg = new Color(220, 240, 255); fg = new Color(13, 110, 253);
-            } else if (spec.toLowerCase().contains("pediatr")) {
-                bg = new Color(255, 245, 220); fg = new Color(255, 193, 7);
-            } else {
-                bg = new Color(240, 240, 240); fg = new Color(100, 100, 100);
-            }
-            
-            JLabel badge = new JLabel(spec) {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(bg);
-                    g2.fillRoundRect(0, 0, getWidth(), getHeight(), 15, 15);
-                    super.paintComponent(g);
-                }
-            };
-            badge.setOpaque(false);
-            badge.setForeground(fg);
-            badge.setFont(new Font("Segoe UI", Font.BOLD, 12));
-            badge.setHorizontalAlignment(SwingConstants.CENTER);
-            badge.setPreferredSize(new Dimension(120, 26));
-            
-            panel.add(badge);
-            return panel;
+    class SpecializationRenderer extends CellRenderers.BadgeRenderer {
+        SpecializationRenderer() {
+            super(FONT_BADGE, 120, 26, 15);
         }
     }
 
     // 3. Patient Count Renderer
     class PatientCountRenderer extends DefaultTableCellRenderer {
+        PatientCountRenderer() {
+            setHorizontalAlignment(CENTER);
+        }
+
         @Override
         public Component getTableCellRendererComponent(JTable table, Object value, 
                 boolean isSelected, boolean hasFocus, int row, int column) {
-            JLabel label = (JLabel) super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-            label.setHorizontalAlignment(CENTER);
-            label.setFont(new Font("Segoe UI", Font.BOLD, 14));
-            label.setText(value + " Patients");
-            return label;
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            setFont(FONT_NAME); // After super, which resets it to the table font
+            return this;
         }
     }
 
     // 4. Availability Renderer (Status indicator)
-    class AvailabilityRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, 
-                boolean isSelected, boolean hasFocus, int row, int column) {
-            
+    class AvailabilityRenderer extends CellRenderers.CellPanel {
+        private final CellRenderers.Avatar dot = new CellRenderers.Avatar(10, 10, FONT_STATUS, Color.WHITE);
+        private final CellRenderers.CellLabel label = new CellRenderers.CellLabel(FONT_STATUS, textDark);
+
+        AvailabilityRenderer() {
             // "justify-content: center" -> FlowLayout.CENTER
-            JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15));
-            panel.setOpaque(true);
-            panel.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
+            super(new FlowLayout(FlowLayout.CENTER, 10, 15));
+            add(dot);
+            add(label);
+        }
+
+        @Override
+        protected void configure(JTable table, Object value, boolean isSelected) {
             String status = (String) value;
-            Color dotColor = status.equals("Available") ? new Color(25, 135, 84) : new Color(255, 193, 7);
-            
-            JLabel dot = new JLabel() {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(dotColor);
-                    g2.fillOval(0, 0, 10, 10);
-                }
-            };
-            dot.setPreferredSize(new Dimension(10, 10));
-            
-            JLabel label = new JLabel(status);
-            label.setFont(new Font("Segoe UI", Font.PLAIN, 13));
-            
-            panel.add(dot);
-            panel.add(label);
-            return panel;
+            dot.set(status.equals("Available") ? AVAILABLE : BUSY, null, null);
+            label.setText(status);
         }
     }
 
@@ -446,56 +421,102 @@ public class DoctorPanel extends JPanel {
     //           LOGIC & DATA METHODS
     // ==========================================
 
+    // A doctor plus the figures the table shows for them
+    private static class DoctorRow {
+        final Doctor doctor;
+        final int patientCount;
+
+        DoctorRow(Doctor doctor, int patientCount) {
+            this.doctor = doctor;
+            this.patientCount = patientCount;
+        }
+    }
+
+    private boolean showingAll = true; // False while search results or a specialization filter are shown
+    private final java.util.Map<String, Boolean> pendingChanges = new java.util.LinkedHashMap<>(); // id -> inserted, not yet re-read
+
     public void refreshTable(List<Doctor> data) {
-        tableModel.setRowCount(0);
-        
-        // Use List<Object[]> to carry prepared row data
-        SwingWorker<List<Object[]>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Object[]> doInBackground() throws Exception {
-                List<Doctor> doctors;
-                if (data != null) doctors = data;
-                else doctors = hmc.getDoctorCtrl().getAllDoctors();
-                
-                // Get all patient counts in ONE query (Map<DoctorID, Count>)
-                java.util.Map<String, Integer> counts = hmc.getPatientCtrl().getPatientCountsGroupedByDoctor();
-                
-                List<Object[]> rows = new java.util.ArrayList<>();
-                
-                for (Doctor d : doctors) {
-                    // No more DB call here! Look up from map.
-                    int patientCount = counts.getOrDefault(d.getDoctorId(), 0);
-                    String availability = patientCount < 10 ? "Available" : "Busy";
-                    
-                    rows.add(new Object[]{
-                        d.getDoctorId() + ":" + d.getName(),
-                        d.getSpecialization(),
-                        String.valueOf(patientCount),
-                        availability
-                    });
-                }
-                return rows;
+        showingAll = (data == null);
+        tableModel.clear();
+        if (data == null) updateStats();
+
+        RefreshScheduler.shared().submit("doctors", () -> {
+            List<Doctor> doctors = (data != null) ? data : hmc.getDoctorCtrl().getAllDoctors(); // Usually cached
+            // Get all patient counts in ONE query (Map<DoctorID, Count>)
+            java.util.Map<String, Integer> counts = hmc.getPatientCtrl().getPatientCountsGroupedByDoctor();
+            List<DoctorRow> rows = new ArrayList<>(doctors.size());
+            for (Doctor d : doctors) {
+                // No more DB call here! Look up from map.
+                rows.add(new DoctorRow(d, counts.getOrDefault(d.getDoctorId(), 0)));
             }
+            return rows;
+        }, tableModel::setRows, ex -> {
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(DoctorPanel.this, "Error loading doctors: " + ex.getMessage());
+        });
+    }
 
-            @Override
-            protected void done() {
-                try {
-                    List<Object[]> rows = get();
-                    tableModel.setRowCount(0);
-                    for (Object[] row : rows) {
-                        tableModel.addRow(row);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    JOptionPane.showMessageDialog(DoctorPanel.this, "Error loading doctors: " + e.getMessage());
+    /**
+     * Applies doctor changes from any terminal row by row. Patient changes only move the
+     * per-doctor counts, so those are re-read in one query and patched into the shown rows.
+     * Call on the EDT.
+     */
+    public void applyChanges(List<ChangeEvent> events) {
+        boolean countsChanged = false;
+        boolean doctorsChanged = false;
+        for (ChangeEvent e : events) {
+            if (e.getTable() == ChangeEvent.Table.DOCTORS) {
+                doctorsChanged = true;
+                if (e.isDelete()) {
+                    pendingChanges.remove(e.getKey());
+                    tableModel.removeKey(e.getKey());
+                } else {
+                    pendingChanges.merge(e.getKey(), e.getOperation() == ChangeEvent.Operation.INSERT, Boolean::logicalOr);
                 }
+            } else if (e.getTable() == ChangeEvent.Table.PATIENTS) {
+                countsChanged = true;
             }
-        };
-        worker.execute();
+        }
+        if (doctorsChanged) updateStats();
+        if (pendingChanges.isEmpty() && !countsChanged) return;
+
+        // Bursts coalesce: a newer batch supersedes this one and re-reads everything still pending
+        java.util.Map<String, Boolean> batch = new java.util.LinkedHashMap<>(pendingChanges);
+        RefreshScheduler.shared().submit("doctors.changes", () -> {
+            java.util.Map<String, Doctor> found = new java.util.LinkedHashMap<>();
+            for (String id : batch.keySet()) found.put(id, hmc.getDoctorCtrl().findDoctorById(id));
+            return new DoctorChanges(found, hmc.getPatientCtrl().getPatientCountsGroupedByDoctor());
+        }, changes -> {
+            pendingChanges.keySet().removeAll(batch.keySet());
+            java.util.Map<String, Integer> counts = changes.counts;
+            changes.doctors.forEach((id, d) -> {
+                if (d == null) return; // Deleted again, or the read failed
+                DoctorRow row = new DoctorRow(d, counts.getOrDefault(id, 0));
+                // A new doctor only belongs in the unfiltered list
+                if (!tableModel.replace(row) && batch.get(id) && showingAll) tableModel.upsert(row);
+            });
+            for (DoctorRow r : new ArrayList<>(tableModel.getRows())) {
+                int count = counts.getOrDefault(r.doctor.getDoctorId(), 0);
+                if (count != r.patientCount) tableModel.replace(new DoctorRow(r.doctor, count));
+            }
+        });
+    }
+
+    // Re-read doctors plus fresh per-doctor patient counts
+    private static class DoctorChanges {
+        final java.util.Map<String, Doctor> doctors;
+        final java.util.Map<String, Integer> counts;
+
+        DoctorChanges(java.util.Map<String, Doctor> doctors, java.util.Map<String, Integer> counts) {
+            this.doctors = doctors;
+            this.counts = counts;
+        }
     }
 
     private void setupListeners() {
-        txtSearch.addActionListener(e -> performSearch());
+        // Live search: runs in the background once typing pauses, stale queries are cancelled
+        DebouncedSearch.attach(txtSearch, query -> hmc.getDoctorCtrl().searchDoctors(query),
+                this::refreshTable, () -> refreshTable(null));
         
         if (isAdmin) {
             table.addMouseListener(new MouseAdapter() {
@@ -508,24 +529,13 @@ public class DoctorPanel extends JPanel {
     }
 
         
-    private void performSearch() {
-        String query = txtSearch.getText().trim();
-        if (!query.isEmpty() && !query.contains("Search")) {
-            List<Doctor> results = hmc.getDoctorCtrl().searchDoctors(query);
-            refreshTable(results);
-        } else {
-            refreshTable(null);
-        }
-    }
-    
     private String getSelectedIdFromRow() {
         int row = table.getSelectedRow();
         if (row == -1) { 
             JOptionPane.showMessageDialog(this, "Please select a doctor first."); 
             return null; 
         }
-        String raw = (String) table.getValueAt(row, 0);
-        return raw.split(":")[0];
+        return tableModel.getRow(table.convertRowIndexToModel(row)).doctor.getDoctorId();
     }
 
     // ==========================================
@@ -567,8 +577,8 @@ public class DoctorPanel extends JPanel {
             
         if (confirm == JOptionPane.YES_OPTION) {
             if (hmc.getDoctorCtrl().deleteDoctor(id)) {
+                tableModel.removeKey(id);
                 JOptionPane.showMessageDialog(this, "Doctor deleted successfully.");
-                refreshTable(null);
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to delete doctor.");
             }
@@ -600,8 +610,8 @@ public class DoctorPanel extends JPanel {
                                 specField.getText().trim());
             
             if (hmc.getDoctorCtrl().addDoctor(d)) {
+                if (showingAll) tableModel.upsert(new DoctorRow(d, 0)); // Filtered views get it on the next refresh
                 JOptionPane.showMessageDialog(this, "Doctor added successfully!");
-                refreshTable(null);
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to add doctor. ID may already exist.");
             }
@@ -629,12 +639,14 @@ public class DoctorPanel extends JPanel {
         if (JOptionPane.showConfirmDialog(this, panel, "Edit Doctor", 
                 JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) == JOptionPane.OK_OPTION) {
             
-            d.setName(nameField.getText().trim());
-            d.setSpecialization(specField.getText().trim());
+            // d may be the cached instance, so send a copy rather than editing it in place
+            Doctor updated = new Doctor(id, nameField.getText().trim(), specField.getText().trim());
             
-            if (hmc.getDoctorCtrl().updateDoctor(d)) {
+            if (hmc.getDoctorCtrl().updateDoctor(updated)) {
+                int row = tableModel.indexOfKey(id);
+                int count = (row >= 0) ? tableModel.getRow(row).patientCount : 0;
+                tableModel.replace(new DoctorRow(updated, count));
                 JOptionPane.showMessageDialog(this, "Doctor updated successfully!");
-                refreshTable(null);
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to update doctor.");
             }
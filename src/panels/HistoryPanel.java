@@ -1,6 +1,7 @@
 package panels;
 
 import controllers.HospitalManagementController;
+import db.ChangeEvent;
 import java.awt.*;
 import java.util.List;
 import javax.swing.*;
@@ -11,6 +12,7 @@ import javax.swing.table.DefaultTableModel;
 import models.PatientHistory;
 import utils.IconUtils;
 import utils.ModernUI;
+import utils.RefreshScheduler;
 
 public class HistoryPanel extends JPanel {
 
@@ -184,28 +186,38 @@ public class HistoryPanel extends JPanel {
         refreshTable(); 
     }
 
+    private boolean stale = false; // History changed while the panel was hidden
+
+    // Discharges append history rows; reload now if visible, otherwise on the next visit. Call on the EDT.
+    public void applyChanges(List<ChangeEvent> events) {
+        for (ChangeEvent e : events) {
+            if (e.getTable() == ChangeEvent.Table.PATIENT_HISTORY) {
+                if (isShowing()) loadData();
+                else stale = true;
+                return;
+            }
+        }
+    }
+
+    public void refreshIfStale() {
+        if (stale) loadData();
+    }
+
     private void refreshTable() {
+        stale = false;
         tableModel.setRowCount(0);
-        SwingWorker<List<PatientHistory>, Void> worker = new SwingWorker<>() {
-            @Override protected List<PatientHistory> doInBackground() {
-                return hmc.getPatientCtrl().getPatientHistory();
+        RefreshScheduler.shared().submit("history", () -> hmc.getPatientCtrl().getPatientHistory(), list -> {
+            tableModel.setRowCount(0); // Rows may have been added by a load this one superseded
+            for (PatientHistory p : list) {
+                tableModel.addRow(new Object[]{
+                    p.getName() + " (" + p.getPatientId() + ")",
+                    p.getMedicalHistory(),
+                    p.getDoctorName(),
+                    p.getAdmissionDate(),
+                    p.getDischargeDate()
+                });
             }
-            @Override protected void done() {
-                try {
-                    List<PatientHistory> list = get();
-                    for (PatientHistory p : list) {
-                        tableModel.addRow(new Object[]{
-                            p.getName() + " (" + p.getPatientId() + ")",
-                            p.getMedicalHistory(),
-                            p.getDoctorName(),
-                            p.getAdmissionDate(),
-                            p.getDischargeDate()
-                        });
-                    }
-                } catch (Exception e) { e.printStackTrace(); }
-            }
-        };
-        worker.execute();
+        });
     }
 
     private void resetDatabase() {
@@ -1,13 +1,17 @@
 package panels;
 
 import controllers.HospitalManagementController;
+import db.ChangeEvent;
 import java.awt.*;
+import java.util.List;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
+import models.DashboardSnapshot;
 import utils.IconUtils;
 import utils.ModernUI;
+import utils.RefreshScheduler;
 
 public class HomePanel extends JPanel {
 
@@ -20,7 +24,15 @@ public class HomePanel extends JPanel {
     private JPanel deptLoadContent;
     private JPanel activeStaffContent;
 
+    // Rows in the "recent admissions" table
+    public static final int RECENT_ADMISSIONS = 7;
+
     public HomePanel(HospitalManagementController hmc) {
+        this(hmc, null);
+    }
+
+    // Shows snapshot right away if given (e.g. prefetched during login), else loads one
+    public HomePanel(HospitalManagementController hmc, DashboardSnapshot snapshot) {
         this.hmc = hmc;
         setLayout(new BorderLayout());
         setBackground(new Color(240, 242, 245));
@@ -77,7 +89,8 @@ public class HomePanel extends JPanel {
 
         add(contentWrapper, BorderLayout.CENTER);
 
-        refreshData();
+        if (snapshot != null) applyDashboardData(snapshot);
+        else refreshData();
     }
 
     private JPanel createBottomSection() {
@@ -271,99 +284,97 @@ public class HomePanel extends JPanel {
         label.setHorizontalAlignment(SwingConstants.CENTER);
     }
 
-    public void refreshData() {
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            int pCount, dCount, totalRooms, occupiedRooms;
-            java.util.List<models.Patient> recentPatients;
-            java.util.Map<String, Integer> specStats;
-            java.util.List<models.Doctor> activeDoctors;
-
-            @Override
-            protected Void doInBackground() throws Exception {
-                // 1. Fetch Counts
-                pCount = hmc.getPatientCtrl().getPatientCount();
-                dCount = hmc.getDoctorCtrl().getDoctorCount();
-                totalRooms = hmc.getRoomCtrl().getTotalRooms();
-                occupiedRooms = hmc.getRoomCtrl().getOccupiedRoomCount();
-
-                // 2. Fetch Recent Patients (Limit 7)
-                recentPatients = hmc.getPatientCtrl().getRecentPatients(7);
-
-                // 3. Fetch Dept Load
-                specStats = hmc.getDoctorCtrl().getSpecializationStats();
-
-                // 4. Fetch Active/Available Doctors
-                activeDoctors = hmc.getDoctorCtrl().getAvailableDoctors();
-
-                return null;
-            }
+    private boolean stale = false; // Data changed while the panel was hidden
 
-            @Override
-            protected void done() {
-                // Update Counts
-                lblPatients.setText(String.valueOf(pCount));
-                lblDoctors.setText(String.valueOf(dCount));
-                lblRooms.setText(occupiedRooms + " / " + totalRooms);
-
-                if (totalRooms > 0) {
-                    int percent = (int) (((double) occupiedRooms / totalRooms) * 100);
-                    progressOccupancy.setValue(percent);
-                    progressOccupancy.setToolTipText(percent + "% Occupied");
-                } else {
-                    progressOccupancy.setValue(0);
-                }
-
-                // Update Recent Patients Table
-                recentTableModel.setRowCount(0);
-                for (models.Patient p : recentPatients) {
-                    String docName = (p.getDoctor() != null) ? p.getDoctor().getName() : "Unassigned";
-                    // Infer Status from Room or Relation
-                    String status = "Active"; 
-                    if (p.getRoom() != null) status = "Admitted";
-                    else if (docName.equals("Unassigned")) status = "Pending";
-                    
-                    recentTableModel.addRow(new Object[]{
-                        p.getPatientId(),
-                        p.getName(),
-                        docName,
-                        p.getAdmissionDate() != null ? p.getAdmissionDate().toString() : "N/A",
-                        status
-                    });
-                }
-
-                // Update Dept Load
-                deptLoadContent.removeAll();
-                int totalDocs = dCount > 0 ? dCount : 1;
-                specStats.forEach((spec, count) -> {
-                    int percent = (int)(((double)count / totalDocs) * 100);
-                    Color barColor = new Color(13, 110, 253); // Default Blue
-                    // Random-ish colors based on spec hash or name
-                    if(spec.contains("Cardio")) barColor = new Color(220, 53, 69);
-                    else if(spec.contains("Neuro")) barColor = new Color(111, 66, 193);
-                    else if(spec.contains("Pediatr")) barColor = new Color(255, 193, 7);
-                    
-                    deptLoadContent.add(createProgressRow(spec, percent, barColor));
-                    deptLoadContent.add(Box.createVerticalStrut(15));
+    // Every figure on the dashboard is an aggregate, so any change means one snapshot reload:
+    // right away if visible, otherwise when the tab is next opened. Call on the EDT.
+    public void applyChanges(List<ChangeEvent> events) {
+        if (events.isEmpty()) return;
+        if (isShowing()) refreshData();
+        else stale = true;
+    }
+
+    public void refreshIfStale() {
+        if (stale) refreshData();
+    }
+
+    public void refreshData() {
+        stale = false;
+        // Counts, recent admissions, department load and staff arrive in one round trip
+        RefreshScheduler.shared().submit("home",
+                () -> hmc.getDashboardCtrl().getSnapshot(RECENT_ADMISSIONS),
+                snapshot -> {
+                    if (snapshot != null) applyDashboardData(snapshot);
                 });
-                deptLoadContent.revalidate();
-                deptLoadContent.repaint();
-
-                // Update Active Staff
-                activeStaffContent.removeAll();
-                for (models.Doctor d : activeDoctors) {
-                     // Fake status for visual variety since we don't have it
-                     String status = "On Duty";
-                     Color bg = new Color(225, 255, 235);
-                     Color fg = new Color(25, 135, 84);
-                     
-                     activeStaffContent.add(createStaffRow(d.getName(), d.getSpecialization(), status, bg, fg));
-                     activeStaffContent.add(Box.createVerticalStrut(10));
-                }
-                activeStaffContent.revalidate();
-                activeStaffContent.repaint();
-            }
-        };
-        worker.execute();
+    }
+
+    private void applyDashboardData(DashboardSnapshot snapshot) {
+        int pCount = snapshot.getPatientCount();
+        int dCount = snapshot.getDoctorCount();
+        int totalRooms = snapshot.getTotalRooms();
+        int occupiedRooms = snapshot.getOccupiedRooms();
+
+        // Update Counts
+        lblPatients.setText(String.valueOf(pCount));
+        lblDoctors.setText(String.valueOf(dCount));
+        lblRooms.setText(occupiedRooms + " / " + totalRooms);
+
+        if (totalRooms > 0) {
+            int percent = (int) (((double) occupiedRooms / totalRooms) * 100);
+            progressOccupancy.setValue(percent);
+            progressOccupancy.setToolTipText(percent + "% Occupied");
+        } else {
+            progressOccupancy.setValue(0);
+        }
+
+        // Update Recent Patients Table
+        recentTableModel.setRowCount(0);
+        for (models.Patient p : snapshot.getRecentPatients()) {
+            String docName = (p.getDoctor() != null) ? p.getDoctor().getName() : "Unassigned";
+            // Infer Status from Room or Relation
+            String status = "Active"; 
+            if (p.getRoom() != null) status = "Admitted";
+            else if (docName.equals("Unassigned")) status = "Pending";
+            
+            recentTableModel.addRow(new Object[]{
+                p.getPatientId(),
+                p.getName(),
+                docName,
+                p.getAdmissionDate() != null ? p.getAdmissionDate().toString() : "N/A",
+                status
+            });
+        }
+
+        // Update Dept Load
+        deptLoadContent.removeAll();
+        int totalDocs = dCount > 0 ? dCount : 1;
+        snapshot.getSpecializationStats().forEach((spec, count) -> {
+            int percent = (int)(((double)count / totalDocs) * 100);
+            Color barColor = new Color(13, 110, 253); // Default Blue
+            // Random-ish colors based on spec hash or name
+            if(spec.contains("Cardio")) barColor = new Color(220, 53, 69);
+            else if(spec.contains("Neuro")) barColor = new Color(111, 66, 193);
+            else if(spec.contains("Pediatr")) barColor = new Color(255, 193, 7);
+            
+            deptLoadContent.add(createProgressRow(spec, percent, barColor));
+            deptLoadContent.add(Box.createVerticalStrut(15));
+        });
+        deptLoadContent.revalidate();
+        deptLoadContent.repaint();
+
+        // Update Active Staff
+        activeStaffContent.removeAll();
+        for (models.Doctor d : snapshot.getAvailableDoctors()) {
+             // Fake status for visual variety since we don't have it
+             String status = "On Duty";
+             Color bg = new Color(225, 255, 235);
+             Color fg = new Color(25, 135, 84);
+             
+             activeStaffContent.add(createStaffRow(d.getName(), d.getSpecialization(), status, bg, fg));
+             activeStaffContent.add(Box.createVerticalStrut(10));
+        }
+        activeStaffContent.revalidate();
+        activeStaffContent.repaint();
     }
 
     // --- CARDS ---
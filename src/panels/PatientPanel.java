@@ -1,25 +1,32 @@
 package panels;
 
 import controllers.HospitalManagementController;
+import db.ChangeEvent;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.geom.Ellipse2D;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import models.*;
+import utils.BackgroundTasks;
+import utils.CellRenderers;
+import utils.CellRenderers.Badge;
+import utils.CellRenderers.Profile;
+import utils.DebouncedSearch;
+import utils.EntityTableModel;
 import utils.IconUtils;
 import utils.ModernUI;
+import utils.PatientSearchIndex;
+import utils.RefreshScheduler;
 
 public class PatientPanel extends JPanel {
 
     private HospitalManagementController hmc;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Patient> tableModel;
     private JTable table;
     private JTextField txtSearch;
     
@@ -68,15 +75,27 @@ public class PatientPanel extends JPanel {
         // Columns matching the screenshot design
         String[] columns = {"Patient Name", "Diagnosis", "Assigned Dr.", "Room", "Admitted", "Status"};
         
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        tableModel = new EntityTableModel<>(columns,
+            p -> new Profile(Profile.initialOf(p.getName(), "?"), p.getName(), "ID: " + p.getPatientId(),
+                    ModernUI.getAvatarColor(p.getName()), null),
+            Patient::getMedicalHistory,
+            p -> doctorProfile((p.getDoctor() != null) ? p.getDoctor().getName() : "Unassigned"),
+            p -> (p.getRoom() != null) ? p.getRoom().getRoomId() : "Waiting",
+            p -> (p.getAdmissionDate() != null) ? p.getAdmissionDate().toString() : LocalDate.now().toString(),
+            p -> statusBadge(statusOf(p))
+        );
+        tableModel.setKeyFunction(Patient::getPatientId);
         
         table = new JTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION); // Bulk discharge
         setupTableStyle(); // Apply the "Modern" look
 
         // ScrollPane styling
         JScrollPane scrollPane = new JScrollPane(table);
+        tableScroll = scrollPane;
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (!e.getValueIsAdjusting()) loadMoreIfNeeded();
+        });
         scrollPane.getViewport().setBackground(Color.WHITE);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
         scrollPane.setBackground(Color.WHITE);
@@ -145,7 +164,7 @@ public class PatientPanel extends JPanel {
         // Dynamic Badges
         lblAdmittedBadge = new JLabel("+0%");
         lblBedsBadge = new JLabel("0% Free");
-        lblCriticalBadge = new JLabel("0% of Total");
+        lblCriticalBadge = new JLabel("0% of loaded");
 
         styleStatsLabel(lblTotalAdmitted);
         styleStatsLabel(lblAvailableBeds);
@@ -163,7 +182,7 @@ public class PatientPanel extends JPanel {
             IconUtils.createIcon(IconUtils.ICON_BED, 32, new Color(25, 135, 84)), 
             new Color(225, 255, 235), new Color(25, 135, 84)));
             
-        // 3. Critical Cases (% of Total Patients)
+        // 3. Critical Cases (% of the patients loaded so far)
         panel.add(createStatsCard("Critical Cases", lblCriticalCases, lblCriticalBadge, 
             IconUtils.createIcon(IconUtils.ICON_ALERT, 32, new Color(220, 53, 69)), 
             new Color(255, 235, 235), new Color(220, 53, 69)));
@@ -341,350 +360,345 @@ public class PatientPanel extends JPanel {
         table.getColumnModel().getColumn(4).setCellRenderer(ModernUI.createCenterRenderer());
     }
 
+    // Renderers are created once per table and only reconfigured per cell (see CellRenderers)
+    private static final Font FONT_NAME = new Font("Segoe UI", Font.BOLD, 14);
+    private static final Font FONT_ID = new Font("Segoe UI", Font.PLAIN, 12);
+    private static final Font FONT_AVATAR = new Font("Segoe UI", Font.BOLD, 20);
+    private static final Font FONT_BADGE = new Font("Segoe UI", Font.BOLD, 11);
+
+    private static final Badge BADGE_STABLE = new Badge("Stable", new Color(220, 255, 220), new Color(25, 135, 84), null);
+    private static final Badge BADGE_CRITICAL = new Badge("Critical", new Color(255, 225, 225), new Color(220, 53, 69), null);
+    private static final Badge BADGE_RECOVERY = new Badge("Recovery", new Color(225, 240, 255), new Color(13, 110, 253), null);
+    private static final Badge BADGE_OBSERVATION = new Badge("Observation", new Color(255, 245, 220), new Color(200, 150, 0), null);
+
+    private static Profile doctorProfile(String name) {
+        return new Profile(name.isEmpty() ? "" : name.substring(0, 1), name, null, null, null);
+    }
+
+    private static Badge statusBadge(String status) {
+        switch (status) {
+            case "Stable": return BADGE_STABLE;
+            case "Critical": return BADGE_CRITICAL;
+            case "Recovery": return BADGE_RECOVERY;
+            default: return BADGE_OBSERVATION;
+        }
+    }
+
     // 1. Patient Info Renderer (Avatar + Name + ID)
-    class PatientInfoRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+    class PatientInfoRenderer extends CellRenderers.CellPanel {
+        private final CellRenderers.Avatar avatar = new CellRenderers.Avatar(44, 44, FONT_AVATAR, Color.WHITE);
+        private final CellRenderers.CellLabel lblName = new CellRenderers.CellLabel(FONT_NAME, textDark);
+        private final CellRenderers.CellLabel lblId = new CellRenderers.CellLabel(FONT_ID, textGray);
+
+        PatientInfoRenderer() {
             // OUTER PANEL: Centers the inner content container
-            JPanel outer = new JPanel(new FlowLayout(FlowLayout.CENTER, 0, 5));
-            outer.setOpaque(true);
-            outer.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
+            super(new FlowLayout(FlowLayout.CENTER, 0, 5));
+
             // INNER CONTAINER: Fixed width ensures Avatars align perfectly vertically
-            // Width 220px is wide enough for most names but keeps the center look
-            JPanel content = new JPanel(new BorderLayout(12, 0)); 
-            content.setPreferredSize(new Dimension(240, 44)); 
+            // Width 240px is wide enough for most names but keeps the center look
+            JPanel content = new JPanel(new BorderLayout(12, 0));
+            content.setPreferredSize(new Dimension(240, 44));
             content.setOpaque(false);
-            
-            String fullString = (String) value; // "PT-101: Name"
-            String[] parts = fullString.split(":"); 
-            String id = parts.length > 0 ? parts[0] : "";
-            String name = parts.length > 1 ? parts[1] : "";
-            
-            // Deterministic Color based on name
-            int hash = Math.abs(name.hashCode());
-            Color[] palette = {
-                new Color(13, 110, 253), // Blue
-                new Color(102, 16, 242), // Indigo
-                new Color(111, 66, 193), // Purple
-                new Color(214, 51, 132), // Pink
-                new Color(220, 53, 69),  // Red
-                new Color(253, 126, 20), // Orange
-                new Color(255, 193, 7),  // Yellow
-                new Color(25, 135, 84),  // Green
-                new Color(32, 201, 151), // Teal
-                new Color(13, 202, 240)  // Cyan
-            };
-            Color avatarBg = palette[hash % palette.length];
-
-            // Avatar
-            JLabel avatar = new JLabel() {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(avatarBg);
-                    g2.fillOval(0,0,44,44); 
-                    
-                    g2.setColor(Color.WHITE);
-                    g2.setFont(new Font("Segoe UI", Font.BOLD, 20));
-                    
-                    String initial = name.length() > 0 ? name.substring(0,1).toUpperCase() : "?";
-                    FontMetrics fm = g2.getFontMetrics();
-                    int textX = (getWidth() - fm.stringWidth(initial)) / 2;
-                    int textY = (getHeight() - fm.getHeight()) / 2 + fm.getAscent();
-                    
-                    g2.drawString(initial, textX, textY);
-                }
-            };
-            avatar.setPreferredSize(new Dimension(44, 44));
-            
+
             // Text Panel
             JPanel textPanel = new JPanel(new GridLayout(2, 1, 0, 0));
             textPanel.setOpaque(false);
-            
-            JLabel lblName = new JLabel(name);
-            lblName.setFont(new Font("Segoe UI", Font.BOLD, 14)); // Slightly smaller for better fit
-            lblName.setForeground(isSelected ? table.getSelectionForeground() : textDark);
-            
-            JLabel lblId = new JLabel("ID: " + id);
-            lblId.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-            lblId.setForeground(isSelected ? table.getSelectionForeground() : textGray);
-            
             textPanel.add(lblName);
             textPanel.add(lblId);
-            
+
             content.add(avatar, BorderLayout.WEST);
             content.add(textPanel, BorderLayout.CENTER);
-            
-            outer.add(content);
-            return outer;
+            add(content);
+        }
+
+        @Override
+        protected void configure(JTable table, Object value, boolean isSelected) {
+            Profile p = (Profile) value;
+            avatar.set(p.accent, p.initial, null);
+            lblName.setText(p.title);
+            lblId.setText(p.subtitle);
+            lblName.setForeground(isSelected ? table.getSelectionForeground() : textDark);
+            lblId.setForeground(isSelected ? table.getSelectionForeground() : textGray);
         }
     }
 
     // 2. Doctor Info Renderer (Simple Icon + Name)
     class DoctorInfoRenderer extends DefaultTableCellRenderer {
+        private final InitialIcon icon = new InitialIcon(new Color(200, 220, 255)); // Simple circle icon
+
+        DoctorInfoRenderer() {
+            // Center align the label content (icon + text)
+            setHorizontalAlignment(SwingConstants.CENTER);
+            setHorizontalTextPosition(SwingConstants.RIGHT);
+            setIconTextGap(8);
+            setIcon(icon);
+        }
+
         @Override
         public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-            JLabel label = (JLabel) super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-            label.setIcon(new TextIcon(value.toString().substring(0, 1), new Color(200, 220, 255))); // Simple circle icon
-            label.setText(" " + value.toString());
-            // Center align the label content (icon + text)
-            label.setHorizontalAlignment(SwingConstants.CENTER); 
-            label.setHorizontalTextPosition(SwingConstants.RIGHT);
-            return label;
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column); // Text: the name
+            icon.initial = ((Profile) value).initial;
+            return this;
         }
     }
 
     // 3. Status Pill Renderer
-    class StatusPillRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-            JLabel label = new JLabel((String) value);
-            label.setHorizontalAlignment(CENTER);
-            label.setFont(new Font("Segoe UI", Font.BOLD, 11));
-            label.setOpaque(false); // We draw the pill manually
-            
-            // Determine Color
-            String status = (String) value;
-            Color bg, fg;
-            
-            if (status.equals("Stable")) {
-                bg = new Color(220, 255, 220); fg = new Color(25, 135, 84);
-            } else if (status.equals("Critical")) {
-                bg = new Color(255, 225, 225); fg = new Color(220, 53, 69);
-            } else if (status.equals("Recovery")) {
-                bg = new Color(225, 240, 255); fg = new Color(13, 110, 253);
-            } else {
-                bg = new Color(255, 245, 220); fg = new Color(200, 150, 0);
-            }
-            
-            // "justify-content: center" -> FlowLayout.CENTER
-            JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15));
-            panel.setOpaque(true);
-            panel.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
-            JLabel pill = new JLabel(status) {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(bg);
-                    g2.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
-                    super.paintComponent(g);
-                }
-            };
-            pill.setOpaque(false);
-            pill.setForeground(fg);
-            pill.setFont(new Font("Segoe UI", Font.BOLD, 11));
-            pill.setHorizontalAlignment(SwingConstants.CENTER);
-            pill.setPreferredSize(new Dimension(80, 24));
-            
-            panel.add(pill);
-            return panel;
+    class StatusPillRenderer extends CellRenderers.BadgeRenderer {
+        StatusPillRenderer() {
+            super(FONT_BADGE, 80, 24, 20);
         }
     }
 
     // Data Cache & Filter State
-    private java.util.List<Patient> masterList = new java.util.ArrayList<>();
+    private final PatientSearchIndex searchIndex = new PatientSearchIndex(PatientPanel::statusOf);
     private String currentDeptFilter = null;
     private String currentStatusFilter = null;
+
+    // Paging State (rows are pulled from the DB page by page as the user scrolls)
+    private static final int PAGE_SIZE = 200;
+    private JScrollPane tableScroll;
+    private PatientPage.Cursor nextCursor = null;
+    private boolean hasMorePages = false;
+    private boolean loadingPage = false;
+    private boolean searchMode = false; // Showing server-side search results instead of pages
+    private int loadGeneration = 0;     // Bumped on refresh so late pages from an old load are dropped
+    private boolean stale = false;      // Set by changes that can't be patched in place
+    private final java.util.Map<String, Boolean> pendingChanges = new java.util.LinkedHashMap<>(); // id -> inserted, not yet re-read
     
     // ==========================================
     //           LOGIC & DATA METHODS
     // ==========================================
 
     /**
-     * REFRESH DATA: Fetches fresh data from DB, updates stats, then applies current filters.
+     * REFRESH DATA: Drops the loaded pages and fetches the first page again, then updates stats.
      * The 'data' argument is ignored in this new logic but kept for compatibility.
      */
     public void refreshTable(List<Patient> ignored) {
-        // Show loading state could go here
-        
-        SwingWorker<List<Patient>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Patient> doInBackground() throws Exception {
-                // Fetch ALL relevant data
-                if (currentUser.isDoctor() && doctorFilterId != null) {
-                    return hmc.getPatientCtrl().getPatientsByDoctorId(doctorFilterId);
-                } else {
-                    return hmc.getPatientCtrl().getAllPatients();
-                }
-            }
+        stale = false;
+        loadGeneration++;
+        searchIndex.clear();
+        nextCursor = null;
+        hasMorePages = true;
+        loadingPage = false;
+        searchMode = false;
+        loadNextPage();
+    }
 
-            @Override
-            protected void done() {
-                try {
-                    masterList = get(); // Update Cache
-                    applyFilters();     // Render Table
-                    updateStats();      // Update Stats
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    JOptionPane.showMessageDialog(PatientPanel.this, "Error loading data: " + e.getMessage());
-                }
-            }
-        };
-        worker.execute();
+    private void loadNextPage() {
+        if (loadingPage || !hasMorePages || searchMode) return;
+        loadingPage = true;
+
+        int generation = loadGeneration;
+        boolean firstPage = (nextCursor == null);
+        PatientPage.Cursor after = nextCursor;
+        String doctorId = (currentUser.isDoctor() && doctorFilterId != null) ? doctorFilterId : null;
+
+        // One key for every page: a refresh supersedes (and cancels) a page still loading
+        RefreshScheduler.shared().submit("patients.page",
+                () -> hmc.getPatientCtrl().getPatientsPage(PAGE_SIZE, after, doctorId),
+                page -> {
+                    if (generation != loadGeneration) return; // Search results replaced the list meanwhile
+                    loadingPage = false;
+                    List<Patient> items = new java.util.ArrayList<>();
+                    for (Patient p : page.getItems()) {
+                        // A live insert may already have put this patient in the list
+                        if (!searchIndex.contains(p.getPatientId())) items.add(p);
+                    }
+                    int firstSlot = searchIndex.addAll(items);
+                    nextCursor = page.getNextCursor();
+                    hasMorePages = page.hasMore();
+                    if (firstPage) applyFilters();      // Render Table
+                    else appendFiltered(firstSlot);
+                    if (firstPage) updateStats();       // Update Stats
+                    else updateCriticalStats();         // Critical covers the loaded pages
+                    loadMoreIfNeeded();                 // Filters may leave the viewport unfilled
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    loadingPage = false;
+                    JOptionPane.showMessageDialog(PatientPanel.this, "Error loading data: " + ex.getMessage());
+                });
+    }
+
+    // Fetches the next page once the user scrolls within a few rows of the bottom
+    private void loadMoreIfNeeded() {
+        if (loadingPage || !hasMorePages || searchMode) return;
+        JScrollBar bar = tableScroll.getVerticalScrollBar();
+        int remaining = bar.getMaximum() - (bar.getValue() + bar.getVisibleAmount());
+        if (remaining <= table.getRowHeight() * 10) {
+            loadNextPage();
+        }
     }
     
     /**
-     * APPLY FILTERS: filters masterList -> updates Table
+     * APPLY FILTERS: queries the in-memory index over the loaded patients -> updates Table
      */
     private void applyFilters() {
-        String query = txtSearch.getText().trim().toLowerCase();
-        List<Patient> filtered = new java.util.ArrayList<>();
-        
-        for (Patient p : masterList) {
-            // 1. Search Filter (Name or ID)
-            boolean matchesSearch = query.isEmpty() || 
-                                    p.getName().toLowerCase().contains(query) || 
-                                    p.getPatientId().toLowerCase().contains(query);
-                                    
-            if (!matchesSearch) continue;
-
-            // 2. Dept Filter (Doctor Specialization)
-            boolean matchesDept = true;
-            if (currentDeptFilter != null) {
-                String spec = (p.getDoctor() != null) ? p.getDoctor().getSpecialization() : "Unassigned";
-                if (!spec.equalsIgnoreCase(currentDeptFilter)) {
-                    matchesDept = false;
-                }
-            }
-            if (!matchesDept) continue;
-
-            // 3. Status Filter (Generated)
-            // Re-calculate status to match Renderer logic
-            String[] statuses = {"Stable", "Critical", "Recovery", "Observation"};
-            String status = statuses[Math.abs(p.getName().hashCode()) % statuses.length];
-            if (p.getRoom() != null && "ICU".equalsIgnoreCase(p.getRoom().getRoomType())) {
-                status = "Critical"; 
-            }
-            
-            boolean matchesStatus = true;
-            if (currentStatusFilter != null) {
-                if (!status.equalsIgnoreCase(currentStatusFilter)) {
-                    matchesStatus = false;
+        tableModel.setRows(searchIndex.filter(txtSearch.getText(), currentDeptFilter, currentStatusFilter));
+    }
+
+    // A newly loaded page only needs its own rows filtered and appended
+    private void appendFiltered(int firstSlot) {
+        tableModel.appendRows(searchIndex.filter(txtSearch.getText(), currentDeptFilter, currentStatusFilter, firstSlot));
+    }
+
+    // ==========================================
+    //      LIVE CHANGES (database change feed)
+    // ==========================================
+
+    /**
+     * Applies row changes from any terminal. Changed patients are re-read and patched into
+     * the index and table in place; deleted ones are dropped. Doctor/room edits change the
+     * joined columns of many rows, so those mark the list stale instead. Call on the EDT.
+     */
+    public void applyChanges(List<ChangeEvent> events) {
+        boolean removed = false;
+        for (ChangeEvent e : events) {
+            if (e.getTable() == ChangeEvent.Table.PATIENTS) {
+                if (e.isDelete()) {
+                    pendingChanges.remove(e.getKey());
+                    removeLoaded(e.getKey());
+                    removed = true;
+                } else {
+                    pendingChanges.merge(e.getKey(), e.getOperation() == ChangeEvent.Operation.INSERT, Boolean::logicalOr);
                 }
+            } else if ((e.getTable() == ChangeEvent.Table.DOCTORS || e.getTable() == ChangeEvent.Table.ROOMS)
+                    && e.getOperation() == ChangeEvent.Operation.UPDATE) {
+                stale = true;
             }
-            if (!matchesStatus) continue;
+        }
 
-            // All passed
-            filtered.add(p);
+        if (stale && isShowing()) { refreshTable(null); return; }
+        if (pendingChanges.isEmpty()) {
+            if (removed) updateStats();
+            return;
         }
-        
-        updateTableOnly(filtered);
-    }
-    
-    private void updateTableOnly(List<Patient> patients) {
-        tableModel.setRowCount(0);
-        for (Patient p : patients) {
-            String docName = (p.getDoctor() != null) ? p.getDoctor().getName() : "Unassigned";
-            String roomName = (p.getRoom() != null) ? p.getRoom().getRoomId() : "Waiting";
-            String date = (p.getAdmissionDate() != null) ? p.getAdmissionDate().toString() : LocalDate.now().toString();
-            
-            String[] statuses = {"Stable", "Critical", "Recovery", "Observation"};
-            String status = statuses[Math.abs(p.getName().hashCode()) % statuses.length];
-            if (p.getRoom() != null && "ICU".equalsIgnoreCase(p.getRoom().getRoomType())) {
-                status = "Critical";
-            }
 
-            tableModel.addRow(new Object[]{
-                p.getPatientId() + ":" + p.getName(),
-                p.getMedicalHistory(),
-                docName,
-                roomName,
-                date,
-                status
+        // Bursts coalesce: a newer batch supersedes this one and re-reads everything still pending
+        java.util.Map<String, Boolean> batch = new java.util.LinkedHashMap<>(pendingChanges);
+        int generation = loadGeneration;
+        RefreshScheduler.shared().submit("patients.changes", () -> {
+            java.util.Map<String, Patient> found = new java.util.LinkedHashMap<>();
+            for (String id : batch.keySet()) found.put(id, hmc.getPatientCtrl().findPatientById(id));
+            return found;
+        }, found -> {
+            pendingChanges.keySet().removeAll(batch.keySet());
+            if (generation != loadGeneration) return; // Reloaded meanwhile, which already has them
+            found.forEach((id, p) -> {
+                // null: gone again (its DELETE event follows) or the read failed
+                if (p != null) upsertLoaded(p, batch.get(id));
             });
+            updateStats();
+        });
+    }
+
+    // Re-loads the list if changes arrived that could not be applied in place
+    public void refreshIfStale() {
+        if (stale) refreshTable(null);
+    }
+
+    private void upsertLoaded(Patient p, boolean inserted) {
+        String id = p.getPatientId();
+        String doctorId = (currentUser.isDoctor() && doctorFilterId != null) ? doctorFilterId : null;
+        if (doctorId != null && (p.getDoctor() == null || !doctorId.equals(p.getDoctor().getDoctorId()))) {
+            removeLoaded(id); // Reassigned away from this doctor
+            return;
+        }
+        // Updates only touch loaded rows (others may sit on pages not fetched yet);
+        // new admissions join the paged listing but not a fixed set of search results
+        if (!searchIndex.contains(id) && (!inserted || searchMode)) return;
+
+        int slot = searchIndex.upsert(p);
+        if (searchIndex.filter(txtSearch.getText(), currentDeptFilter, currentStatusFilter, slot).isEmpty()) {
+            tableModel.removeKey(id); // No longer matches the current filters
+        } else {
+            tableModel.upsert(p);
         }
     }
 
+    private void removeLoaded(String patientId) {
+        if (!searchIndex.contains(patientId)) return;
+        searchIndex.remove(patientId);
+        tableModel.removeKey(patientId);
+    }
+
+    private static final String[] STATUSES = {"Stable", "Critical", "Recovery", "Observation"};
+
+    // Status is not stored; it is derived from the name, and ICU always means Critical
+    private static String statusOf(Patient p) {
+        if (p.getRoom() != null && "ICU".equalsIgnoreCase(p.getRoom().getRoomType())) {
+            return "Critical";
+        }
+        return STATUSES[Math.abs(p.getName().hashCode()) % STATUSES.length];
+    }
+
     private void updateStats() {
-        SwingWorker<Void, Void> statsWorker = new SwingWorker<>() {
-            int total = 0, critical = 0, disch = 0, avail = 0;
-            int admittedToday = 0, totalRooms = 0;
-            double growth = 0;
-            double pctBedsFree = 0;
-            double pctCritical = 0;
-
-            @Override
-            protected Void doInBackground() {
-                // 1. Fetch Basic counts from DB / Memory
-                // Use masterList for consistency with UI filters if possible, but for 'Total Admitted' we generally want DB ground truth.
-                // However, for 'Critical', we MUST use masterList logic because it's virtually generated.
-                
-                // A. Total Admitted (DB)
-                total = hmc.getPatientCtrl().getPatientCount();
-                
-                // B. Critical (Memory - to match visual Table)
-                critical = 0;
-                String[] statuses = {"Stable", "Critical", "Recovery", "Observation"};
-                for (Patient p : masterList) {
-                    String status = statuses[Math.abs(p.getName().hashCode()) % statuses.length];
-                    if (p.getRoom() != null && "ICU".equalsIgnoreCase(p.getRoom().getRoomType())) {
-                        status = "Critical";
-                    }
-                    if ("Critical".equalsIgnoreCase(status)) {
-                        critical++;
-                    }
-                }
-                
-                // C. Discharges & Admissions (DB)
-                disch = hmc.getPatientCtrl().getTodayDischargeCount();
-                admittedToday = hmc.getPatientCtrl().getTodayAdmissionCount();
-                
-                // D. Available Beds (DB - Robust method)
-                // Use getAvailableRooms().size() directly instead of math
-                avail = hmc.getRoomCtrl().getAvailableRooms().size();
-                totalRooms = hmc.getRoomCtrl().getTotalRooms();
-                
-                // 3. Growth Calculation
-                int yesterdayTotal = total - admittedToday + disch;
-                if (yesterdayTotal > 0) {
-                    growth = ((double)(total - yesterdayTotal) / yesterdayTotal) * 100;
-                } else if (total > 0) {
-                    growth = 100.0;
-                }
-                
-                // 4. Badges (Avail Beds %, Critical %)
-                if (totalRooms > 0) pctBedsFree = ((double)avail / totalRooms) * 100;
-                if (total > 0) pctCritical = ((double)critical / total) * 100;
-                
-                return null;
-            }
-            @Override
-            protected void done() {
-                 lblTotalAdmitted.setText(String.valueOf(total));
-                 lblCriticalCases.setText(String.valueOf(critical));
-                 lblDischarges.setText(String.valueOf(disch));
-                 lblAvailableBeds.setText(String.valueOf(avail));
-                 
-                 // Update Admitted Badge
-                 if (growth > 0) {
-                     lblAdmittedBadge.setText("+" + String.format("%.1f", growth) + "%");
-                     lblAdmittedBadge.setForeground(new Color(25, 135, 84));
-                     lblAdmittedBadge.setBackground(new Color(225, 255, 235));
-                 } else if (growth < 0) {
-                     lblAdmittedBadge.setText(String.format("%.1f", growth) + "%");
-                     lblAdmittedBadge.setForeground(new Color(220, 53, 69));
-                     lblAdmittedBadge.setBackground(new Color(255, 235, 235));
-                 } else {
-                     lblAdmittedBadge.setText("0%");
-                     lblAdmittedBadge.setForeground(textGray);
-                     lblAdmittedBadge.setBackground(new Color(240, 240, 240));
-                 }
-                 
-                 // Update Beds Badge
-                 lblBedsBadge.setText(String.format("%.0f", pctBedsFree) + "% Free");
-                 
-                 // Update Critical Badge
-                 lblCriticalBadge.setText(String.format("%.0f", pctCritical) + "% of Total");
-            }
-        };
-        statsWorker.execute();
+        // A. Total Admitted, C. Discharges & Admissions, D. Available Beds (DB, one aggregate query)
+        // B. Critical (Memory - to match visual Table, since status is virtually generated)
+        RefreshScheduler.shared().submit("patients.stats",
+                () -> hmc.getPatientCtrl().getPatientStats(),
+                this::applyStats);
+    }
+
+    // Status only exists client-side, so the count and its percentage both cover the loaded
+    // rows (never the database total); it grows as more pages are fetched
+    private void updateCriticalStats() {
+        int critical = searchIndex.countWithStatus("Critical");
+        int loaded = searchIndex.size();
+        double pctCritical = loaded > 0 ? ((double) critical / loaded) * 100 : 0;
+        lblCriticalCases.setText(String.valueOf(critical));
+        lblCriticalBadge.setText(String.format("%.0f", pctCritical) + "% of loaded");
+    }
+
+    private void applyStats(PatientStats stats) {
+        int total = stats.getTotalPatients();
+        int disch = stats.getDischargedToday();
+        int admittedToday = stats.getAdmittedToday();
+        int avail = stats.getAvailableRooms();
+        int totalRooms = stats.getTotalRooms();
+
+        double growth = 0;
+        double pctBedsFree = 0;
+
+        // Growth Calculation
+        int yesterdayTotal = total - admittedToday + disch;
+        if (yesterdayTotal > 0) {
+            growth = ((double)(total - yesterdayTotal) / yesterdayTotal) * 100;
+        } else if (total > 0) {
+            growth = 100.0;
+        }
+
+        // Badge (Avail Beds %)
+        if (totalRooms > 0) pctBedsFree = ((double)avail / totalRooms) * 100;
+
+        lblTotalAdmitted.setText(String.valueOf(total));
+        lblDischarges.setText(String.valueOf(disch));
+        lblAvailableBeds.setText(String.valueOf(avail));
+        
+        // Update Admitted Badge
+        if (growth > 0) {
+            lblAdmittedBadge.setText("+" + String.format("%.1f", growth) + "%");
+            lblAdmittedBadge.setForeground(new Color(25, 135, 84));
+            lblAdmittedBadge.setBackground(new Color(225, 255, 235));
+        } else if (growth < 0) {
+            lblAdmittedBadge.setText(String.format("%.1f", growth) + "%");
+            lblAdmittedBadge.setForeground(new Color(220, 53, 69));
+            lblAdmittedBadge.setBackground(new Color(255, 235, 235));
+        } else {
+            lblAdmittedBadge.setText("0%");
+            lblAdmittedBadge.setForeground(textGray);
+            lblAdmittedBadge.setBackground(new Color(240, 240, 240));
+        }
+        
+        // Update Beds Badge
+        lblBedsBadge.setText(String.format("%.0f", pctBedsFree) + "% Free");
+        
+        updateCriticalStats();
     }
     
     private void setupListeners() {
-        txtSearch.addActionListener(e -> performSearch());
-        // Add Document Listener for instant search? Maybe later.
+        // Live search: runs in the background once typing pauses, stale queries are cancelled
+        DebouncedSearch.attach(txtSearch, this::searchAllPatients, this::showSearchResults, this::clearSearch);
         
         table.addMouseListener(new MouseAdapter() {
             public void mouseClicked(MouseEvent e) {
@@ -694,27 +708,47 @@ public class PatientPanel extends JPanel {
         });
     }
 
-    private void performSearch() {
-        // Just apply filters. No DB hit.
-        applyFilters(); 
+    // Only some pages are loaded, so search the whole table on the server (background thread);
+    // a doctor's filter is part of the query so the result limit applies to their patients only
+    private List<Patient> searchAllPatients(String query) {
+        String doctorId = (currentUser.isDoctor() && doctorFilterId != null) ? doctorFilterId : null;
+        return hmc.getPatientCtrl().searchPatients(query, doctorId);
     }
-    
 
+    private void showSearchResults(List<Patient> results) {
+        loadGeneration++; // Drop any page still loading for the list we are replacing
+        RefreshScheduler.shared().cancel("patients.page");
+        searchMode = true;
+        loadingPage = false;
+        hasMorePages = false;
+        searchIndex.clear();
+        searchIndex.addAll(results);
+        applyFilters();
+        updateCriticalStats();
+    }
 
-    // --- Helper: Simple Circle Icon Class ---
-    private static class TextIcon implements Icon {
-        private String text; private Color color;
-        public TextIcon(String text, Color color) { this.text = text; this.color = color; }
+    private void clearSearch() {
+        // Back to the paged listing
+        if (searchMode) refreshTable(null);
+        else applyFilters();
+    }
+
+    // --- Helper: Simple Circle Icon Class (one per renderer, the initial is set per cell) ---
+    private static class InitialIcon implements Icon {
+        private static final Font FONT = new Font("SansSerif", Font.BOLD, 12);
+        private final Color color;
+        String initial = "";
+        InitialIcon(Color color) { this.color = color; }
         public int getIconWidth() { return 24; }
         public int getIconHeight() { return 24; }
         public void paintIcon(Component c, Graphics g, int x, int y) {
             Graphics2D g2 = (Graphics2D)g;
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             g2.setColor(color);
-            g2.fill(new Ellipse2D.Double(x, y, 24, 24));
+            g2.fillOval(x, y, 24, 24);
             g2.setColor(Color.DARK_GRAY);
-            g2.setFont(new Font("SansSerif", Font.BOLD, 12));
-            g2.drawString(text, x+8, y+17);
+            g2.setFont(FONT);
+            g2.drawString(initial, x+8, y+17);
         }
     }
 
@@ -723,8 +757,15 @@ public class PatientPanel extends JPanel {
     private String getSelectedIdFromRow() {
         int row = table.getSelectedRow();
         if (row == -1) { JOptionPane.showMessageDialog(this, "Select a row."); return null; }
-        String raw = (String) table.getValueAt(row, 0); 
-        return raw.split(":")[0];
+        return tableModel.getRow(table.convertRowIndexToModel(row)).getPatientId();
+    }
+
+    private List<String> getSelectedIdsFromRows() {
+        List<String> ids = new java.util.ArrayList<>();
+        for (int row : table.getSelectedRows()) {
+            ids.add(tableModel.getRow(table.convertRowIndexToModel(row)).getPatientId());
+        }
+        return ids;
     }
     
     // ... Dialogs ...
@@ -776,17 +817,50 @@ public class PatientPanel extends JPanel {
     }
 
     private void performDischarge() {
-        String patientId = getSelectedIdFromRow();
-        if (patientId != null) {
-            if (JOptionPane.showConfirmDialog(this, "Discharge " + patientId + "?", "Confirm", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
-                if (hmc.dischargePatient(patientId)) {
-                    JOptionPane.showMessageDialog(this, "Discharged!");
-                    refreshTable(null);
-                }
+        List<String> ids = getSelectedIdsFromRows();
+        if (ids.isEmpty()) { JOptionPane.showMessageDialog(this, "Select a row."); return; }
+        if (ids.size() > 1) { performBulkDischarge(ids); return; }
+
+        String patientId = ids.get(0);
+        if (JOptionPane.showConfirmDialog(this, "Discharge " + patientId + "?", "Confirm", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
+            if (hmc.dischargePatient(patientId)) {
+                removeLoaded(patientId);
+                updateStats();
+                JOptionPane.showMessageDialog(this, "Discharged!");
             }
         }
     }
 
+    // Several rows selected (Ctrl/Shift-click): discharge them all in one transaction
+    private void performBulkDischarge(List<String> ids) {
+        if (JOptionPane.showConfirmDialog(this, "Discharge " + ids.size() + " patients?", "Confirm", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        hmc.getAsyncCtrl().dischargePatients(ids, LocalDate.now())
+                .thenAcceptAsync(results -> {
+                    List<String> failed = new java.util.ArrayList<>();
+                    results.forEach((id, ok) -> {
+                        if (ok) removeLoaded(id);
+                        else failed.add(id);
+                    });
+                    updateStats();
+
+                    int done = results.size() - failed.size();
+                    if (failed.isEmpty()) {
+                        JOptionPane.showMessageDialog(this, "Discharged " + done + " patients!");
+                    } else {
+                        JOptionPane.showMessageDialog(this,
+                                "Discharged " + done + " of " + results.size() + " patients.\nNot discharged: " + String.join(", ", failed),
+                                "Bulk Discharge", JOptionPane.WARNING_MESSAGE);
+                    }
+                }, BackgroundTasks.EDT)
+                .exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return null;
+                });
+    }
+
     private void showAddPatientDialog() {
         JTextField idField = new JTextField();
         JTextField nameField = new JTextField();
@@ -802,7 +876,8 @@ public class PatientPanel extends JPanel {
                 int age = Integer.parseInt(ageField.getText().trim());
                 Patient p = new Patient(idField.getText(), nameField.getText(), age, addrField.getText(), historyField.getText());
                 if (hmc.getPatientCtrl().addPatient(p)) {
-                    refreshTable(null);
+                    upsertLoaded(p, true);
+                    updateStats();
                     JOptionPane.showMessageDialog(this, "Success!");
                 } else JOptionPane.showMessageDialog(this, "ID exists.");
             } catch (Exception ex) { JOptionPane.showMessageDialog(this, "Invalid Age."); }
@@ -823,7 +898,7 @@ public class PatientPanel extends JPanel {
             try {
                 p.updateDetails(nameField.getText(), Integer.parseInt(ageField.getText()), addrField.getText(), historyField.getText());
                 if (hmc.getPatientCtrl().updatePatient(p)) {
-                    refreshTable(null);
+                    upsertLoaded(p, false);
                     JOptionPane.showMessageDialog(this, "Updated!");
                 }
             } catch (Exception ex) { JOptionPane.showMessageDialog(this, "Invalid Input"); }
@@ -836,9 +911,12 @@ public class PatientPanel extends JPanel {
         JComboBox<String> box = new JComboBox<>();
         for (Doctor d : docs) box.addItem(d.getDoctorId() + " - " + d.getName());
         if (JOptionPane.showConfirmDialog(this, box, "Assign Doctor", JOptionPane.OK_CANCEL_OPTION) == JOptionPane.OK_OPTION) {
-            String docId = ((String)box.getSelectedItem()).split(" - ")[0];
-            hmc.assignPatientToDoctor(pid, docId);
-            refreshTable(null);
+            Doctor doc = docs.get(box.getSelectedIndex());
+            Patient p = searchIndex.get(pid);
+            if (hmc.assignPatientToDoctor(pid, doc.getDoctorId()) && p != null) {
+                p.assignDoctor(doc);
+                upsertLoaded(p, false); // Re-indexes the department and updates the row
+            }
         }
     }
 
@@ -848,9 +926,17 @@ public class PatientPanel extends JPanel {
         JComboBox<String> box = new JComboBox<>();
         for (Room r : rooms) box.addItem(r.getRoomId() + " - " + r.getRoomType());
         if (JOptionPane.showConfirmDialog(this, box, "Assign Room", JOptionPane.OK_CANCEL_OPTION) == JOptionPane.OK_OPTION) {
-            String rid = ((String)box.getSelectedItem()).split(" - ")[0];
-            hmc.assignPatientToRoom(pid, rid);
-            refreshTable(null);
+            Room room = rooms.get(box.getSelectedIndex());
+            Patient p = searchIndex.get(pid);
+            if (hmc.assignPatientToRoom(pid, room.getRoomId())) {
+                if (p != null) {
+                    p.assignRoom(room);
+                    upsertLoaded(p, false); // ICU changes the status column
+                }
+                updateStats(); // One bed fewer
+            } else {
+                JOptionPane.showMessageDialog(this, "Could not assign room: it was taken, or the patient already has one.");
+            }
         }
     }
 }
\ No newline at end of file
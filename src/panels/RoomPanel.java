@@ -1,6 +1,7 @@
 package panels;
 
 import controllers.HospitalManagementController;
+import db.ChangeEvent;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -8,20 +9,29 @@ import java.util.List;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 
 import models.*;
+import utils.CellRenderers;
+import utils.CellRenderers.Badge;
+import utils.CellRenderers.Profile;
+import utils.DebouncedSearch;
+import utils.EntityTableModel;
 import utils.IconUtils;
 import utils.ModernUI;
+import utils.RefreshScheduler;
 
 public class RoomPanel extends JPanel {
 
     private HospitalManagementController hmc;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Room> tableModel;
     private JTable table;
     private JTextField txtSearch;
     private boolean isAdmin;
 
+    // Stats Labels
+    private JLabel lblTotalRooms, lblAvailable, lblOccupied, lblIcu;
+    private JLabel lblAvailableBadge, lblOccupiedBadge;
+
     // Modern Color Palette
     private Color primaryBlue = new Color(13, 110, 253);
     private Color bgLight = new Color(245, 247, 251);
@@ -58,9 +68,14 @@ public class RoomPanel extends JPanel {
         // --- 2. CENTER SECTION (Table) ---
         String[] columns = {"Room Details", "Room Type", "Status", "Occupant", "Rate/Day"};
         
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        tableModel = new EntityTableModel<>(columns,
+            r -> roomProfile(r.getRoomId()),
+            r -> roomTypeBadge(r.getRoomType()),
+            r -> r.isOccupied() ? BADGE_OCCUPIED : BADGE_AVAILABLE,
+            r -> (r.getPatient() != null) ? r.getPatient().getName() : "Empty",
+            r -> calculateRoomRate(r.getRoomType())
+        );
+        tableModel.setKeyFunction(Room::getRoomId);
         
         table = new JTable(tableModel);
         setupTableStyle();
@@ -128,13 +143,42 @@ public class RoomPanel extends JPanel {
         JPanel panel = new JPanel(new GridLayout(1, 4, 20, 0));
         panel.setOpaque(false);
         
-        // Calculate real stats
-        List<Room> allRooms = hmc.getRoomCtrl().getAllRooms();
+        // Figures arrive with the room list (see updateStats)
+        lblTotalRooms = new JLabel("...");
+        lblAvailable = new JLabel("...");
+        lblOccupied = new JLabel("...");
+        lblIcu = new JLabel("...");
+        lblAvailableBadge = new JLabel("Capacity OK");
+        lblOccupiedBadge = new JLabel("0%");
+        
+        panel.add(ModernUI.createStatsCard("Total Rooms", lblTotalRooms, 
+            new JLabel("Facility"), IconUtils.createIcon(IconUtils.ICON_HOSPITAL, 32, primaryBlue), 
+            new Color(230, 240, 255), primaryBlue));
+            
+        panel.add(ModernUI.createStatsCard("Available", lblAvailable, 
+            lblAvailableBadge, 
+            IconUtils.createIcon(IconUtils.ICON_DOOR, 32, new Color(25, 135, 84)), 
+            new Color(225, 255, 235), new Color(25, 135, 84)));
+            
+        panel.add(ModernUI.createStatsCard("Occupied", lblOccupied, 
+            lblOccupiedBadge, 
+            IconUtils.createIcon(IconUtils.ICON_BED, 32, new Color(255, 193, 7)), 
+            new Color(255, 245, 220), new Color(255, 193, 7)));
+            
+        panel.add(ModernUI.createStatsCard("ICU Rooms", lblIcu, 
+            new JLabel("Critical Care"), 
+            IconUtils.createIcon(IconUtils.ICON_ALERT, 32, new Color(220, 53, 69)), 
+            new Color(255, 235, 235), new Color(220, 53, 69)));
+        
+        return panel;
+    }
+
+    // Stats come from the full room list the table loads, not a query of their own
+    private void updateStats(List<Room> allRooms) {
         int totalRooms = allRooms.size();
         int available = 0;
         int occupied = 0;
         int icu = 0;
-
         
         for (Room r : allRooms) {
             if (r.isOccupied()) occupied++;
@@ -146,26 +190,12 @@ public class RoomPanel extends JPanel {
         
         double occupancyRate = totalRooms > 0 ? (occupied * 100.0 / totalRooms) : 0;
         
-        panel.add(ModernUI.createStatsCard("Total Rooms", String.valueOf(totalRooms), 
-            "Facility", IconUtils.createIcon(IconUtils.ICON_HOSPITAL, 32, primaryBlue), 
-            new Color(230, 240, 255), primaryBlue));
-            
-        panel.add(ModernUI.createStatsCard("Available", String.valueOf(available), 
-            available > 10 ? "Capacity OK" : "Low", 
-            IconUtils.createIcon(IconUtils.ICON_DOOR, 32, new Color(25, 135, 84)), 
-            new Color(225, 255, 235), new Color(25, 135, 84)));
-            
-        panel.add(ModernUI.createStatsCard("Occupied", String.valueOf(occupied), 
-            String.format("%.0f%%", occupancyRate), 
-            IconUtils.createIcon(IconUtils.ICON_BED, 32, new Color(255, 193, 7)), 
-            new Color(255, 245, 220), new Color(255, 193, 7)));
-            
-        panel.add(ModernUI.createStatsCard("ICU Rooms", String.valueOf(icu), 
-            "Critical Care", 
-            IconUtils.createIcon(IconUtils.ICON_ALERT, 32, new Color(220, 53, 69)), 
-            new Color(255, 235, 235), new Color(220, 53, 69)));
-        
-        return panel;
+        lblTotalRooms.setText(String.valueOf(totalRooms));
+        lblAvailable.setText(String.valueOf(available));
+        lblAvailableBadge.setText(available > 10 ? "Capacity OK" : "Low");
+        lblOccupied.setText(String.valueOf(occupied));
+        lblOccupiedBadge.setText(String.format("%.0f%%", occupancyRate));
+        lblIcu.setText(String.valueOf(icu));
     }
 
     private JPanel createToolbarSection() {
@@ -292,186 +322,130 @@ public class RoomPanel extends JPanel {
         table.getColumnModel().getColumn(4).setCellRenderer(new RateRenderer());
     }
 
+    // Renderers are created once per table and only reconfigured per cell (see CellRenderers)
+    private static final Font FONT_ROOM = new Font("Segoe UI", Font.BOLD, 15);
+    private static final Font FONT_FLOOR = new Font("Segoe UI", Font.PLAIN, 12);
+    private static final Font FONT_BADGE = new Font("Segoe UI", Font.BOLD, 12);
+    private static final Font FONT_STATUS = new Font("Segoe UI", Font.BOLD, 11);
+    private static final Font FONT_OCCUPANT = new Font("Segoe UI", Font.PLAIN, 13);
+    private static final Font FONT_NO_OCCUPANT = new Font("Segoe UI", Font.ITALIC, 13);
+    private static final Font FONT_RATE = new Font("Segoe UI", Font.BOLD, 14);
+    private static final Color ICON_BG = new Color(225, 240, 255);
+    private static final Color ICON_FG = new Color(13, 110, 253);
+    private static final Color RATE_FG = new Color(25, 135, 84);
+
+    private static final Badge BADGE_AVAILABLE = new Badge("Available", new Color(220, 255, 220), new Color(25, 135, 84), null);
+    private static final Badge BADGE_OCCUPIED = new Badge("Occupied", new Color(255, 225, 225), new Color(220, 53, 69), null);
+
+    // Room icon, name and location; computed once per row by the model
+    private static Profile roomProfile(String roomId) {
+        Icon symbol;
+        if (roomId.contains("ICU")) symbol = IconUtils.createIcon(IconUtils.ICON_ALERT, 24, ICON_FG);
+        else if (roomId.contains("VIP")) symbol = IconUtils.createIcon(IconUtils.ICON_STAR, 24, ICON_FG);
+        else symbol = IconUtils.createIcon(IconUtils.ICON_HOSPITAL, 24, ICON_FG);
+        return new Profile(null, "Room " + roomId, getFloorInfo(roomId), ICON_BG, null, symbol);
+    }
+
+    private static String getFloorInfo(String roomId) {
+        if (roomId != null && roomId.length() >= 3 && Character.isDigit(roomId.charAt(0))) {
+             return "Building A • Floor " + roomId.charAt(0);
+        }
+        return "Building A";
+    }
+
+    private static Badge roomTypeBadge(String type) {
+        String t = type.toLowerCase();
+        if (t.contains("icu")) {
+            Color fg = new Color(220, 53, 69);
+            return new Badge(type, new Color(255, 235, 235), fg, IconUtils.createIcon(IconUtils.ICON_ALERT, 14, fg));
+        } else if (t.contains("private")) {
+            Color fg = new Color(111, 66, 193);
+            return new Badge(type, new Color(240, 230, 255), fg, IconUtils.createIcon(IconUtils.ICON_STAR, 14, fg));
+        }
+        return new Badge(type, new Color(225, 240, 255), ICON_FG, IconUtils.createIcon(IconUtils.ICON_HOSPITAL, 14, ICON_FG));
+    }
+
     // 1. Room Info Renderer (Icon + Room ID)
-    // 1. Room Info Renderer (Icon + Room ID)
-    class RoomInfoRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, 
-                boolean isSelected, boolean hasFocus, int row, int column) {
+    class RoomInfoRenderer extends CellRenderers.CellPanel {
+        private final CellRenderers.Avatar icon = new CellRenderers.Avatar(44, 12, FONT_ROOM, ICON_FG);
+        private final CellRenderers.CellLabel lblRoom = new CellRenderers.CellLabel(FONT_ROOM, textDark);
+        private final CellRenderers.CellLabel lblFloor = new CellRenderers.CellLabel(FONT_FLOOR, textGray);
+
+        RoomInfoRenderer() {
             // "justify-content: center" -> FlowLayout.CENTER
-            JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 8)); 
-            panel.setOpaque(true);
-            panel.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
-            String roomId = (String) value;
-            
-            // Room Icon Background
-            Color iconBg = new Color(225, 240, 255);
-            Color iconFg = new Color(13, 110, 253);
-
-            // Icon
-            JLabel icon = new JLabel() {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(iconBg);
-                    g2.fillRoundRect(0, 0, 44, 44, 12, 12); 
-                    
-                    Icon symbolIcon;
-                    if (roomId.contains("ICU")) symbolIcon = IconUtils.createIcon(IconUtils.ICON_ALERT, 24, iconFg);
-                    else if (roomId.contains("VIP")) symbolIcon = IconUtils.createIcon(IconUtils.ICON_STAR, 24, iconFg);
-                    else symbolIcon = IconUtils.createIcon(IconUtils.ICON_HOSPITAL, 24, iconFg);
-                    
-                    symbolIcon.paintIcon(this, g, (getWidth()-symbolIcon.getIconWidth())/2, (getHeight()-symbolIcon.getIconHeight())/2);
-                }
-            };
-            icon.setPreferredSize(new Dimension(44, 44));
-            
+            super(new FlowLayout(FlowLayout.CENTER, 15, 8));
+
             // Text Panel
-            JPanel textPanel = new JPanel(new GridLayout(2, 1, 0, 2)); 
+            JPanel textPanel = new JPanel(new GridLayout(2, 1, 0, 2));
             textPanel.setOpaque(false);
-            
-            JLabel lblRoom = new JLabel("Room " + roomId);
-            lblRoom.setFont(new Font("Segoe UI", Font.BOLD, 15));
-            lblRoom.setForeground(isSelected ? table.getSelectionForeground() : textDark);
-            
-            JLabel lblFloor = new JLabel(getFloorInfo(roomId));
-            lblFloor.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-            lblFloor.setForeground(isSelected ? table.getSelectionForeground() : textGray);
-            
             textPanel.add(lblRoom);
             textPanel.add(lblFloor);
-            
-            panel.add(icon);
-            panel.add(textPanel);
-            return panel;
+
+            add(icon);
+            add(textPanel);
         }
-        
-        private String getFloorInfo(String roomId) {
-            if (roomId != null && roomId.length() >= 3 && Character.isDigit(roomId.charAt(0))) {
-                 return "Building A • Floor " + roomId.charAt(0);
-            }
-            return "Building A";
+
+        @Override
+        protected void configure(JTable table, Object value, boolean isSelected) {
+            Profile p = (Profile) value;
+            icon.set(p.accent, null, p.icon);
+            lblRoom.setText(p.title);
+            lblFloor.setText(p.subtitle);
+            lblRoom.setForeground(isSelected ? table.getSelectionForeground() : textDark);
+            lblFloor.setForeground(isSelected ? table.getSelectionForeground() : textGray);
         }
     }
 
     // 2. Room Type Renderer (Colored badge)
-    class RoomTypeRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, 
-                boolean isSelected, boolean hasFocus, int row, int column) {
-            
-            // "justify-content: center" -> FlowLayout.CENTER
-            JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15));
-            panel.setOpaque(true);
-            panel.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
-            String type = (String) value;
-            Color bg, fg;
-            Icon icon;
-            
-            if (type.toLowerCase().contains("icu")) {
-                bg = new Color(255, 235, 235);
-                fg = new Color(220, 53, 69);
-                icon = IconUtils.createIcon(IconUtils.ICON_ALERT, 14, fg);
-            } else if (type.toLowerCase().contains("private")) {
-                bg = new Color(240, 230, 255);
-                fg = new Color(111, 66, 193);
-                icon = IconUtils.createIcon(IconUtils.ICON_STAR, 14, fg);
-            } else {
-                bg = new Color(225, 240, 255);
-                fg = new Color(13, 110, 253);
-                icon = IconUtils.createIcon(IconUtils.ICON_HOSPITAL, 14, fg);
-            }
-            
-            JLabel badge = new JLabel(type) {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(bg);
-                    g2.fillRoundRect(0, 0, getWidth(), getHeight(), 15, 15);
-                    super.paintComponent(g);
-                }
-            };
-            badge.setIcon(icon);
-            badge.setOpaque(false);
-            badge.setForeground(fg);
-            badge.setFont(new Font("Segoe UI", Font.BOLD, 12));
-            badge.setHorizontalAlignment(SwingConstants.CENTER);
-            badge.setPreferredSize(new Dimension(120, 26));
-            
-            panel.add(badge);
-            return panel;
+    class RoomTypeRenderer extends CellRenderers.BadgeRenderer {
+        RoomTypeRenderer() {
+            super(FONT_BADGE, 120, 26, 15);
         }
     }
 
     // 3. Status Renderer (Available/Occupied indicator)
-    class StatusRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, 
-                boolean isSelected, boolean hasFocus, int row, int column) {
-            
-            // "justify-content: center" -> FlowLayout.CENTER
-            JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15));
-            panel.setOpaque(true);
-            panel.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
-            String status = (String) value;
-            Color dotColor = status.equals("Available") ? new Color(25, 135, 84) : new Color(220, 53, 69);
-            Color bgColor = status.equals("Available") ? new Color(220, 255, 220) : new Color(255, 225, 225);
-            Color fgColor = dotColor;
-            
-            JLabel badge = new JLabel(status) {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(bgColor);
-                    g2.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
-                    super.paintComponent(g);
-                }
-            };
-            badge.setOpaque(false);
-            badge.setForeground(fgColor);
-            badge.setFont(new Font("Segoe UI", Font.BOLD, 11));
-            badge.setHorizontalAlignment(SwingConstants.CENTER);
-            badge.setPreferredSize(new Dimension(90, 24));
-            
-            panel.add(badge);
-            return panel;
+    class StatusRenderer extends CellRenderers.BadgeRenderer {
+        StatusRenderer() {
+            super(FONT_STATUS, 90, 24, 20);
         }
     }
 
     // 4. Occupant Renderer
     class OccupantRenderer extends DefaultTableCellRenderer {
+        OccupantRenderer() {
+            setHorizontalAlignment(CENTER); // Center align to match header
+        }
+
         @Override
         public Component getTableCellRendererComponent(JTable table, Object value, 
                 boolean isSelected, boolean hasFocus, int row, int column) {
-            JLabel label = (JLabel) super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
             String occupant = (String) value;
             
             if (occupant.equals("-") || occupant.equals("Empty")) {
-                label.setForeground(Color.GRAY);
-                label.setFont(new Font("Segoe UI", Font.ITALIC, 13));
+                setForeground(Color.GRAY);
+                setFont(FONT_NO_OCCUPANT);
             } else {
-                label.setForeground(textDark);
-                label.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+                setForeground(textDark);
+                setFont(FONT_OCCUPANT);
             }
-            
-            label.setHorizontalAlignment(CENTER); // Center align to match header
-            return label;
+            return this;
         }
     }
 
     // 5. Rate Renderer (Price per day)
     class RateRenderer extends DefaultTableCellRenderer {
+        RateRenderer() {
+            setHorizontalAlignment(CENTER);
+        }
+
         @Override
         public Component getTableCellRendererComponent(JTable table, Object value, 
                 boolean isSelected, boolean hasFocus, int row, int column) {
-            JLabel label = (JLabel) super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-            label.setFont(new Font("Segoe UI", Font.BOLD, 14));
-            label.setForeground(new Color(25, 135, 84));
-            label.setHorizontalAlignment(CENTER);
-            return label;
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            setFont(FONT_RATE);
+            setForeground(RATE_FG);
+            return this;
         }
     }
 
@@ -479,42 +453,70 @@ public class RoomPanel extends JPanel {
     //           LOGIC & DATA METHODS
     // ==========================================
 
+    private boolean showingAll = true; // False while search results or a type/status filter are shown
+    private final java.util.Set<String> pendingInserts = new java.util.HashSet<>(); // New rooms not yet re-read
+
     public void refreshTable(List<Room> data) {
-        tableModel.setRowCount(0);
+        showingAll = (data == null);
+        tableModel.clear();
+
+        RefreshScheduler.shared().submit("rooms",
+                () -> (data != null) ? data : hmc.getRoomCtrl().getAllRooms(),
+                rooms -> {
+                    tableModel.setRows(rooms); // One table event for the whole list
+                    if (data == null) updateStats(rooms);
+                },
+                ex -> {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(RoomPanel.this, "Error loading rooms: " + ex.getMessage());
+                });
+    }
 
-        SwingWorker<List<Room>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<Room> doInBackground() throws Exception {
-                if (data != null) return data;
-                return hmc.getRoomCtrl().getAllRooms();
+    /**
+     * Applies room changes from any terminal row by row. Occupancy lives on the patient rows,
+     * and a patient event doesn't say which room it left, so any change re-reads the room
+     * list once (the cache was just invalidated) and patches the rows that differ.
+     * Call on the EDT.
+     */
+    public void applyChanges(List<ChangeEvent> events) {
+        boolean relevant = false;
+        for (ChangeEvent e : events) {
+            if (e.getTable() == ChangeEvent.Table.ROOMS) {
+                relevant = true;
+                if (e.isDelete()) {
+                    pendingInserts.remove(e.getKey());
+                    tableModel.removeKey(e.getKey());
+                } else if (e.getOperation() == ChangeEvent.Operation.INSERT) {
+                    pendingInserts.add(e.getKey());
+                }
+            } else if (e.getTable() == ChangeEvent.Table.PATIENTS) {
+                relevant = true;
             }
-
-            @Override
-            protected void done() {
-                try {
-                    List<Room> rooms = get();
-                    tableModel.setRowCount(0);
-
-                    for (Room r : rooms) {
-                        String status = r.isOccupied() ? "Occupied" : "Available";
-                        String occupant = (r.getPatient() != null) ? r.getPatient().getName() : "Empty";
-                        String rate = calculateRoomRate(r.getRoomType());
-                        
-                        tableModel.addRow(new Object[]{
-                            r.getRoomId(),
-                            r.getRoomType(),
-                            status,
-                            occupant,
-                            rate
-                        });
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    JOptionPane.showMessageDialog(RoomPanel.this, "Error loading rooms: " + e.getMessage());
+        }
+        if (!relevant) return;
+
+        // Bursts coalesce into one re-read; inserts stay pending until a re-read is applied
+        java.util.Set<String> inserted = new java.util.HashSet<>(pendingInserts);
+        RefreshScheduler.shared().submit("rooms.changes", () -> hmc.getRoomCtrl().getAllRooms(), rooms -> {
+            pendingInserts.removeAll(inserted);
+            updateStats(rooms);
+            for (Room r : rooms) {
+                int i = tableModel.indexOfKey(r.getRoomId());
+                if (i >= 0) {
+                    if (!sameRow(tableModel.getRow(i), r)) tableModel.replace(r);
+                } else if (inserted.contains(r.getRoomId()) && showingAll) {
+                    tableModel.upsert(r); // A new room only belongs in the unfiltered list
                 }
             }
-        };
-        worker.execute();
+        });
+    }
+
+    // Compares what the table shows, so unchanged rows don't fire update events
+    private static boolean sameRow(Room a, Room b) {
+        String occupantA = (a.getPatient() != null) ? a.getPatient().getPatientId() + a.getPatient().getName() : null;
+        String occupantB = (b.getPatient() != null) ? b.getPatient().getPatientId() + b.getPatient().getName() : null;
+        return java.util.Objects.equals(a.getRoomType(), b.getRoomType())
+                && java.util.Objects.equals(occupantA, occupantB);
     }
 
     private String calculateRoomRate(String roomType) {
@@ -528,7 +530,9 @@ public class RoomPanel extends JPanel {
     }
 
     private void setupListeners() {
-        txtSearch.addActionListener(e -> performSearch());
+        // Live search: runs in the background once typing pauses, stale queries are cancelled
+        DebouncedSearch.attach(txtSearch, query -> hmc.getRoomCtrl().searchRooms(query),
+                this::refreshTable, () -> refreshTable(null));
         
         if (isAdmin) {
             table.addMouseListener(new MouseAdapter() {
@@ -540,23 +544,13 @@ public class RoomPanel extends JPanel {
         }
     }
 
-    private void performSearch() {
-        String query = txtSearch.getText().trim();
-        if (!query.isEmpty() && !query.contains("Search")) {
-            List<Room> results = hmc.getRoomCtrl().searchRooms(query);
-            refreshTable(results);
-        } else {
-            refreshTable(null);
-        }
-    }
-    
     private String getSelectedIdFromRow() {
         int row = table.getSelectedRow();
         if (row == -1) { 
             JOptionPane.showMessageDialog(this, "Please select a room first."); 
             return null; 
         }
-        return (String) table.getValueAt(row, 0);
+        return tableModel.getRow(table.convertRowIndexToModel(row)).getRoomId();
     }
 
     // ==========================================
@@ -600,8 +594,8 @@ public class RoomPanel extends JPanel {
             
         if (confirm == JOptionPane.YES_OPTION) {
             if (hmc.getRoomCtrl().deleteRoom(id)) {
+                tableModel.removeKey(id);
                 JOptionPane.showMessageDialog(this, "Room deleted successfully.");
-                refreshTable(null);
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to delete room.");
             }
@@ -628,9 +622,12 @@ public class RoomPanel extends JPanel {
             // Unassign patient from room
             if (room.getPatient() != null) {
                 String patientId = room.getPatient().getPatientId();
-                hmc.assignPatientToRoom(patientId, null); // Unassign
-                JOptionPane.showMessageDialog(this, "Room cleared successfully.");
-                refreshTable(null);
+                if (hmc.assignPatientToRoom(patientId, null)) { // Unassign
+                    tableModel.replace(new Room(id, room.getRoomType()));
+                    JOptionPane.showMessageDialog(this, "Room cleared successfully.");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to clear room.");
+                }
             }
         }
     }
@@ -657,8 +654,8 @@ public class RoomPanel extends JPanel {
             Room r = new Room(idField.getText().trim(), (String)typeBox.getSelectedItem());
             
             if (hmc.getRoomCtrl().addRoom(r)) {
+                if (showingAll) tableModel.upsert(r); // Filtered views get it on the next refresh
                 JOptionPane.showMessageDialog(this, "Room added successfully!");
-                refreshTable(null);
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to add room. ID may already exist.");
             }
@@ -688,8 +685,9 @@ public class RoomPanel extends JPanel {
             Room updatedRoom = new Room(id, (String)typeBox.getSelectedItem());
             
             if (hmc.getRoomCtrl().updateRoom(updatedRoom)) {
+                if (room.getPatient() != null) updatedRoom.assignPatient(room.getPatient()); // Type changed, occupant didn't
+                tableModel.replace(updatedRoom);
                 JOptionPane.showMessageDialog(this, "Room updated successfully!");
-                refreshTable(null);
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to update room.");
             }
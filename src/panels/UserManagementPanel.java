@@ -3,13 +3,18 @@ package panels;
 import controllers.UserController;
 import models.User;
 
+import utils.CellRenderers;
+import utils.CellRenderers.Badge;
+import utils.CellRenderers.Profile;
+import utils.DebouncedSearch;
+import utils.EntityTableModel;
 import utils.IconUtils;
 import utils.ModernUI;
+import utils.RefreshScheduler;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
@@ -19,10 +24,13 @@ import java.util.List;
 public class UserManagementPanel extends JPanel {
 
     private UserController userCtrl;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<User> tableModel;
     private JTable table;
     private JTextField txtSearch;
 
+    // Stats Labels (filled in when the user list arrives)
+    private JLabel lblTotalUsers, lblAdmins, lblDoctors, lblStaff;
+
     // Modern Color Palette
     private Color primaryBlue = new Color(13, 110, 253);
     private Color bgLight = new Color(245, 247, 251);
@@ -58,9 +66,14 @@ public class UserManagementPanel extends JPanel {
         // --- 2. CENTER SECTION (Table) ---
         String[] columns = {"User Details", "Role", "Linked Entity", "Status", "Last Login"};
         
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        tableModel = new EntityTableModel<>(columns,
+            u -> new Profile(Profile.initialOf(u.getUsername(), "U"), u.getUsername(),
+                    u.getUsername() + "@hospital.com", null, null),
+            u -> roleBadge(u.getRole()),
+            u -> (u.getLinkedId() != null && !u.getLinkedId().trim().isEmpty()) ? u.getLinkedId() : "-",
+            u -> BADGE_ACTIVE, // Status is implied Active for all users in DB
+            u -> "N/A"         // Last login is not currently tracked in DB
+        );
         
         table = new JTable(tableModel);
         setupTableStyle();
@@ -125,37 +138,25 @@ public class UserManagementPanel extends JPanel {
         JPanel panel = new JPanel(new GridLayout(1, 4, 20, 0));
         panel.setOpaque(false);
         
-        // Calculate real stats
-        List<User> allUsers = userCtrl.getAllUsers();
-        int totalUsers = allUsers.size();
-        int admins = 0;
-        int doctors = 0;
-        int staff = 0;
-
+        lblTotalUsers = new JLabel("...");
+        lblAdmins = new JLabel("...");
+        lblDoctors = new JLabel("...");
+        lblStaff = new JLabel("...");
         
-        for (User u : allUsers) {
-            String role = u.getRole().toUpperCase();
-            if (role.equals("ADMIN")) admins++;
-            else if (role.equals("DOCTOR")) doctors++;
-            else if (role.equals("STAFF")) staff++;
-            
-            // Mack data for status (can be enhanced with actual status)
-        }
-        
-        panel.add(ModernUI.createStatsCard("Total Users", String.valueOf(totalUsers), 
-            "All Accounts", IconUtils.createIcon(IconUtils.ICON_PATIENT_GROUP, 32, primaryBlue), 
+        panel.add(ModernUI.createStatsCard("Total Users", lblTotalUsers, 
+            new JLabel("All Accounts"), IconUtils.createIcon(IconUtils.ICON_PATIENT_GROUP, 32, primaryBlue), 
             new Color(230, 240, 255), primaryBlue));
             
-        panel.add(ModernUI.createStatsCard("Administrators", String.valueOf(admins), 
-            "Full Access", IconUtils.createIcon(IconUtils.ICON_ADMIN, 32, new Color(220, 53, 69)), 
+        panel.add(ModernUI.createStatsCard("Administrators", lblAdmins, 
+            new JLabel("Full Access"), IconUtils.createIcon(IconUtils.ICON_ADMIN, 32, new Color(220, 53, 69)), 
             new Color(255, 235, 235), new Color(220, 53, 69)));
             
-        panel.add(ModernUI.createStatsCard("Doctors", String.valueOf(doctors), 
-            "Medical Staff", IconUtils.createIcon(IconUtils.ICON_DOCTOR, 32, new Color(111, 66, 193)), 
+        panel.add(ModernUI.createStatsCard("Doctors", lblDoctors, 
+            new JLabel("Medical Staff"), IconUtils.createIcon(IconUtils.ICON_DOCTOR, 32, new Color(111, 66, 193)), 
             new Color(240, 230, 255), new Color(111, 66, 193)));
             
-        panel.add(ModernUI.createStatsCard("Staff Members", String.valueOf(staff), 
-            "Support Team", IconUtils.createIcon(IconUtils.ICON_STAFF, 32, new Color(25, 135, 84)), 
+        panel.add(ModernUI.createStatsCard("Staff Members", lblStaff, 
+            new JLabel("Support Team"), IconUtils.createIcon(IconUtils.ICON_STAFF, 32, new Color(25, 135, 84)), 
             new Color(225, 255, 235), new Color(25, 135, 84)));
         
         return panel;
@@ -211,14 +212,15 @@ public class UserManagementPanel extends JPanel {
             return;
         }
         
-        tableModel.setRowCount(0);
-        List<User> users = userCtrl.getAllUsers();
-        
-        for (User u : users) {
-            if (u.getRole().equalsIgnoreCase(role)) {
-                addUserToTable(u);
+        RefreshScheduler.shared().submit("users", () -> {
+            List<User> matching = new java.util.ArrayList<>();
+            for (User u : userCtrl.getAllUsers()) {
+                if (u.getRole().equalsIgnoreCase(role)) {
+                    matching.add(u);
+                }
             }
-        }
+            return matching;
+        }, tableModel::setRows);
     }
 
     private JPanel createActionButtons() {
@@ -268,32 +270,8 @@ public class UserManagementPanel extends JPanel {
         header.setPreferredSize(new Dimension(0, 50)); // Taller for premium feel
         header.setReorderingAllowed(false);
         
-        // Centered Header Renderer with Styling
-        header.setDefaultRenderer(new DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-                // Uppercase the title for a cleaner look
-                String title = value.toString().toUpperCase();
-                
-                JLabel label = (JLabel) super.getTableCellRendererComponent(table, title, isSelected, hasFocus, row, column);
-                
-                // Font: Segoe UI, Bold, 12pt (Standard Modern)
-                label.setFont(new Font("Segoe UI", Font.BOLD, 12));
-                
-                // Colors: Soft Gray Background, Dark Gray Text
-                label.setBackground(new Color(248, 249, 250)); // Very light gray (Bootstrap-like)
-                label.setForeground(new Color(108, 120, 130)); // Cool dark gray
-                
-                // Border: Subtle bottom border
-                label.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createMatteBorder(0, 0, 2, 0, new Color(230, 230, 230)), // slightly thicker bottom line
-                    new EmptyBorder(0, 5, 0, 5)
-                ));
-                
-                label.setHorizontalAlignment(SwingConstants.CENTER);
-                return label;
-            }
-        });
+        // Centered Header Renderer with Styling (shared with the other tables)
+        ModernUI.setupHeaderStyle(table);
         
         // Apply Custom Renderers
         table.getColumnModel().getColumn(0).setCellRenderer(new UserInfoRenderer());
@@ -303,179 +281,124 @@ public class UserManagementPanel extends JPanel {
         table.getColumnModel().getColumn(4).setCellRenderer(new LastLoginRenderer());
     }
 
+    // Renderers are created once per table and only reconfigured per cell (see CellRenderers)
+    private static final Font FONT_NAME = new Font("Segoe UI", Font.BOLD, 14);
+    private static final Font FONT_EMAIL = new Font("Segoe UI", Font.PLAIN, 11);
+    private static final Font FONT_AVATAR = new Font("Segoe UI", Font.BOLD, 18);
+    private static final Font FONT_BADGE = new Font("Segoe UI", Font.BOLD, 12);
+    private static final Font FONT_STATUS = new Font("Segoe UI", Font.BOLD, 11);
+    private static final Font FONT_LINKED = new Font("Segoe UI", Font.PLAIN, 13);
+    private static final Font FONT_NOT_LINKED = new Font("Segoe UI", Font.ITALIC, 13);
+    private static final Font FONT_LOGIN = new Font("Segoe UI", Font.PLAIN, 12);
+    private static final Color AVATAR_BG = new Color(230, 240, 255);
+
+    private static final Badge BADGE_ADMIN = roleBadge("ADMIN", new Color(255, 235, 235), new Color(220, 53, 69), IconUtils.ICON_ADMIN);
+    private static final Badge BADGE_DOCTOR = roleBadge("DOCTOR", new Color(240, 230, 255), new Color(111, 66, 193), IconUtils.ICON_DOCTOR);
+    private static final Badge BADGE_STAFF = roleBadge("STAFF", new Color(225, 255, 235), new Color(25, 135, 84), IconUtils.ICON_STAFF);
+    private static final Badge BADGE_ACTIVE = new Badge("Active", new Color(220, 255, 220), new Color(25, 135, 84), null);
+
+    private static Badge roleBadge(String role, Color bg, Color fg, String icon) {
+        return new Badge(role, bg, fg, IconUtils.createIcon(icon, 14, fg));
+    }
+
+    // Assign colors based on role
+    private static Badge roleBadge(String role) {
+        if (role.equalsIgnoreCase("ADMIN")) return BADGE_ADMIN;
+        if (role.equalsIgnoreCase("DOCTOR")) return BADGE_DOCTOR;
+        if (role.equalsIgnoreCase("STAFF")) return BADGE_STAFF;
+        return new Badge(role.toUpperCase(), BADGE_STAFF.fill, BADGE_STAFF.foreground, BADGE_STAFF.icon);
+    }
+
     // 1. User Info Renderer (Avatar + Username + Email)
-    class UserInfoRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, 
-                boolean isSelected, boolean hasFocus, int row, int column) {
-            JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5)); // Centered
-            panel.setOpaque(true);
-            panel.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
-            String username = (String) value;
-            
-            // Avatar with user icon
-            JLabel avatar = new JLabel() {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    
-                    // Background circle
-                    g2.setColor(new Color(230, 240, 255));
-                    g2.fillOval(0, 0, 40, 40);
-                    
-                    // User initial
-                    g2.setColor(primaryBlue);
-                    g2.setFont(new Font("Segoe UI", Font.BOLD, 18));
-                    String initial = username != null && username.length() > 0 ? 
-                                    username.substring(0, 1).toUpperCase() : "U";
-                    g2.drawString(initial, 14, 26);
-                }
-            };
-            avatar.setPreferredSize(new Dimension(40, 40));
-            
+    class UserInfoRenderer extends CellRenderers.CellPanel {
+        private final CellRenderers.Avatar avatar = new CellRenderers.Avatar(40, 40, FONT_AVATAR, primaryBlue);
+        private final CellRenderers.CellLabel lblUsername = new CellRenderers.CellLabel(FONT_NAME, textDark);
+        private final CellRenderers.CellLabel lblEmail = new CellRenderers.CellLabel(FONT_EMAIL, Color.GRAY);
+
+        UserInfoRenderer() {
+            super(new FlowLayout(FlowLayout.CENTER, 10, 5)); // Centered
+
             // Text Panel
             JPanel textPanel = new JPanel(new GridLayout(2, 1));
             textPanel.setOpaque(false);
-            
-            JLabel lblUsername = new JLabel(username);
-            lblUsername.setFont(new Font("Segoe UI", Font.BOLD, 14));
-            
-            JLabel lblEmail = new JLabel(username + "@hospital.com");
-            lblEmail.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-            lblEmail.setForeground(Color.GRAY);
-            
             textPanel.add(lblUsername);
             textPanel.add(lblEmail);
-            
-            panel.add(avatar);
-            panel.add(textPanel);
-            return panel;
+
+            add(avatar);
+            add(textPanel);
+        }
+
+        @Override
+        protected void configure(JTable table, Object value, boolean isSelected) {
+            Profile p = (Profile) value;
+            avatar.set(AVATAR_BG, p.initial, null);
+            lblUsername.setText(p.title);
+            lblEmail.setText(p.subtitle);
         }
     }
 
     // 2. Role Renderer (Color-coded badges with icons)
-    class RoleRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, 
-                boolean isSelected, boolean hasFocus, int row, int column) {
-            
-            JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15)); // Centered
-            panel.setOpaque(true);
-            panel.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
-            String role = (String) value;
-            Color bg, fg;
-            Icon icon;
-            
-            // Assign colors based on role
-            if (role.equalsIgnoreCase("ADMIN")) {
-                bg = new Color(255, 235, 235);
-                fg = new Color(220, 53, 69);
-                icon = IconUtils.createIcon(IconUtils.ICON_ADMIN, 14, fg);
-            } else if (role.equalsIgnoreCase("DOCTOR")) {
-                bg = new Color(240, 230, 255);
-                fg = new Color(111, 66, 193);
-                icon = IconUtils.createIcon(IconUtils.ICON_DOCTOR, 14, fg);
-            } else { // STAFF
-                bg = new Color(225, 255, 235);
-                fg = new Color(25, 135, 84);
-                icon = IconUtils.createIcon(IconUtils.ICON_STAFF, 14, fg);
-            }
-            
-            JLabel badge = new JLabel(role) {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(bg);
-                    g2.fillRoundRect(0, 0, getWidth(), getHeight(), 15, 15);
-                    super.paintComponent(g);
-                }
-            };
-            badge.setIcon(icon);
-            badge.setOpaque(false);
-            badge.setForeground(fg);
-            badge.setFont(new Font("Segoe UI", Font.BOLD, 12));
-            badge.setHorizontalAlignment(SwingConstants.CENTER);
-            badge.setPreferredSize(new Dimension(110, 26));
-            
-            panel.add(badge);
-            return panel;
+    class RoleRenderer extends CellRenderers.BadgeRenderer {
+        RoleRenderer() {
+            super(FONT_BADGE, 110, 26, 15);
         }
     }
 
     // 3. Linked Entity Renderer
     class LinkedEntityRenderer extends DefaultTableCellRenderer {
+        private final Icon linkIcon = IconUtils.createIcon(IconUtils.ICON_LINK, 16, primaryBlue);
+        private final javax.swing.border.Border padding = new EmptyBorder(0, 5, 0, 5);
+
+        LinkedEntityRenderer() {
+            setHorizontalAlignment(SwingConstants.CENTER); // Centered
+        }
+
         @Override
         public Component getTableCellRendererComponent(JTable table, Object value, 
                 boolean isSelected, boolean hasFocus, int row, int column) {
-            JLabel label = (JLabel) super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
             
             String linkedId = (String) value;
             
-            if (linkedId == null || linkedId.trim().isEmpty() || linkedId.equals("-")) {
-                label.setText("Not Linked");
-                label.setForeground(Color.GRAY);
-                label.setFont(new Font("Segoe UI", Font.ITALIC, 13));
-                label.setIcon(null);
+            if (linkedId.equals("-")) {
+                setText("Not Linked");
+                setForeground(Color.GRAY);
+                setFont(FONT_NOT_LINKED);
+                setIcon(null);
             } else {
-                label.setText(linkedId); // Removed emoji text
-                label.setIcon(IconUtils.createIcon(IconUtils.ICON_LINK, 16, primaryBlue));
-                label.setForeground(primaryBlue);
-                label.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+                setIcon(linkIcon);
+                setForeground(primaryBlue);
+                setFont(FONT_LINKED);
             }
             
-            label.setBorder(new EmptyBorder(0, 5, 0, 5));
-            label.setHorizontalAlignment(SwingConstants.CENTER); // Centered
-            return label;
+            setBorder(padding);
+            return this;
         }
     }
 
     // 4. Status Renderer (Active/Inactive indicator)
-    class StatusRenderer extends DefaultTableCellRenderer {
-        @Override
-        public Component getTableCellRendererComponent(JTable table, Object value, 
-                boolean isSelected, boolean hasFocus, int row, int column) {
-            
-            JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15)); // Centered
-            panel.setOpaque(true);
-            panel.setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
-            
-            String status = (String) value;
-            Color dotColor = status.equals("Active") ? new Color(25, 135, 84) : new Color(220, 53, 69);
-            Color bgColor = status.equals("Active") ? new Color(220, 255, 220) : new Color(255, 225, 225);
-            
-            JLabel badge = new JLabel(status) {
-                protected void paintComponent(Graphics g) {
-                    Graphics2D g2 = (Graphics2D) g;
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setColor(bgColor);
-                    g2.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
-                    super.paintComponent(g);
-                }
-            };
-            badge.setOpaque(false);
-            badge.setForeground(dotColor);
-            badge.setFont(new Font("Segoe UI", Font.BOLD, 11));
-            badge.setHorizontalAlignment(SwingConstants.CENTER);
-            badge.setPreferredSize(new Dimension(70, 24));
-            
-            panel.add(badge);
-            return panel;
+    class StatusRenderer extends CellRenderers.BadgeRenderer {
+        StatusRenderer() {
+            super(FONT_STATUS, 70, 24, 20);
         }
     }
 
     // 5. Last Login Renderer
     class LastLoginRenderer extends DefaultTableCellRenderer {
+        private final javax.swing.border.Border noBorder = new EmptyBorder(0, 0, 0, 0);
+
+        LastLoginRenderer() {
+            setHorizontalAlignment(SwingConstants.CENTER); // Centered
+        }
+
         @Override
         public Component getTableCellRendererComponent(JTable table, Object value, 
                 boolean isSelected, boolean hasFocus, int row, int column) {
-            JLabel label = (JLabel) super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-            label.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-            label.setForeground(textGray);
-            label.setBorder(new EmptyBorder(0, 0, 0, 0));
-            label.setHorizontalAlignment(SwingConstants.CENTER); // Centered
-            return label;
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            setFont(FONT_LOGIN);
+            setForeground(textGray);
+            setBorder(noBorder);
+            return this;
         }
     }
 
@@ -484,32 +407,32 @@ public class UserManagementPanel extends JPanel {
     // ==========================================
 
     private void refreshTable() {
-        tableModel.setRowCount(0);
-        List<User> users = userCtrl.getAllUsers();
-        for (User u : users) {
-            addUserToTable(u);
-        }
+        RefreshScheduler.shared().submit("users", userCtrl::getAllUsers, users -> {
+            tableModel.setRows(users); // One table event for the whole list
+            updateStats(users);
+        });
     }
 
-    private void addUserToTable(User u) {
-        String linkedId = (u.getLinkedId() != null && !u.getLinkedId().trim().isEmpty()) ? 
-                         u.getLinkedId() : "-";
-        
-        // Status is implied Active for all users in DB
-        String status = "Active";
-        String lastLogin = "N/A"; // Not currently tracked in DB
-        
-        tableModel.addRow(new Object[]{
-            u.getUsername(),
-            u.getRole().toUpperCase(),
-            linkedId,
-            status,
-            lastLogin
-        });
+    // Stats come from the full list the table just loaded, not a query of their own
+    private void updateStats(List<User> allUsers) {
+        int admins = 0;
+        int doctors = 0;
+        int staff = 0;
+        for (User u : allUsers) {
+            String role = u.getRole().toUpperCase();
+            if (role.equals("ADMIN")) admins++;
+            else if (role.equals("DOCTOR")) doctors++;
+            else if (role.equals("STAFF")) staff++;
+        }
+        lblTotalUsers.setText(String.valueOf(allUsers.size()));
+        lblAdmins.setText(String.valueOf(admins));
+        lblDoctors.setText(String.valueOf(doctors));
+        lblStaff.setText(String.valueOf(staff));
     }
 
     private void setupListeners() {
-        txtSearch.addActionListener(e -> performSearch());
+        // Live search: runs in the background once typing pauses, stale queries are cancelled
+        DebouncedSearch.attach(txtSearch, userCtrl::searchUsers, this::showUsers, this::refreshTable);
         
         table.addMouseListener(new MouseAdapter() {
             public void mouseClicked(MouseEvent e) {
@@ -519,21 +442,9 @@ public class UserManagementPanel extends JPanel {
         });
     }
 
-    private void performSearch() {
-        String query = txtSearch.getText().trim();
-        if (!query.isEmpty() && !query.contains("Search")) {
-            tableModel.setRowCount(0);
-            List<User> users = userCtrl.getAllUsers();
-            
-            for (User u : users) {
-                if (u.getUsername().toLowerCase().contains(query.toLowerCase()) ||
-                    u.getRole().toLowerCase().contains(query.toLowerCase())) {
-                    addUserToTable(u);
-                }
-            }
-        } else {
-            refreshTable();
-        }
+    private void showUsers(List<User> users) {
+        RefreshScheduler.shared().cancel("users"); // A full reload still in flight must not replace the results
+        tableModel.setRows(users);
     }
     
     private String getSelectedUsername() {
@@ -542,7 +453,7 @@ public class UserManagementPanel extends JPanel {
             JOptionPane.showMessageDialog(this, "Please select a user first."); 
             return null; 
         }
-        return (String) table.getValueAt(row, 0);
+        return tableModel.getRow(table.convertRowIndexToModel(row)).getUsername();
     }
 
     // ==========================================
@@ -0,0 +1,43 @@
+package utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+
+/**
+ * Shared executors for work that must stay off the Event Dispatch Thread.
+ *
+ * Blocking controller calls run one task per virtual thread when the JVM supports it
+ * (Java 21+); older JVMs fall back to a cached pool of daemon platform threads. Either
+ * way there is no fixed cap like SwingWorker's 10 threads - the connection pool is the
+ * real limit on concurrent queries.
+ */
+public class BackgroundTasks {
+
+    private static final ExecutorService IO = createIoExecutor();
+
+    // Runs callbacks on the EDT, e.g. future.thenAcceptAsync(result -> ..., BackgroundTasks.EDT)
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    public static ExecutorService io() {
+        return IO;
+    }
+
+    private static ExecutorService createIoExecutor() {
+        try {
+            // Looked up reflectively so the project still compiles on JDK 17
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "hms-io-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package utils;
+
+import java.awt.*;
+import javax.swing.*;
+import javax.swing.table.TableCellRenderer;
+
+/**
+ * Parts for table cell renderers that are built once and only reconfigured per cell.
+ *
+ * JTable asks its renderer for a component for every visible cell on every paint, so a
+ * renderer that creates panels, labels, Fonts or Colors there does it thousands of times
+ * while scrolling. Renderers made from these parts set a few fields instead; everything
+ * per-row (initials, badge colors, status text) is computed once into the cell values
+ * (Badge, Profile) by the table model.
+ *
+ * Like DefaultTableCellRenderer, the parts drop repaint and property-change requests,
+ * which only matter for live components - a renderer is just stamped onto the table.
+ */
+public final class CellRenderers {
+
+    private CellRenderers() {}
+
+    // --- Cell values ---
+
+    // A colored pill with optional icon, e.g. a status or role
+    public static final class Badge {
+        public final String text;
+        public final Color fill;
+        public final Color foreground;
+        public final Icon icon;
+
+        public Badge(String text, Color fill, Color foreground, Icon icon) {
+            this.text = text;
+            this.fill = fill;
+            this.foreground = foreground;
+            this.icon = icon;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    // An avatar plus a title and subtitle line, e.g. a patient's name and ID
+    public static final class Profile {
+        public final String initial;
+        public final String title;
+        public final String subtitle;
+        public final Color accent;   // Avatar color; null for the renderer's default
+        public final String tooltip; // Full title when it had to be shortened, else null
+        public final Icon icon;      // Shown in the avatar instead of the initial, if set
+
+        public Profile(String initial, String title, String subtitle, Color accent, String tooltip) {
+            this(initial, title, subtitle, accent, tooltip, null);
+        }
+
+        public Profile(String initial, String title, String subtitle, Color accent, String tooltip, Icon icon) {
+            this.initial = initial;
+            this.title = title;
+            this.subtitle = subtitle;
+            this.accent = accent;
+            this.tooltip = tooltip;
+            this.icon = icon;
+        }
+
+        // Upper-cased first letter of name, or fallback when there is none
+        public static String initialOf(String name, String fallback) {
+            return (name == null || name.isEmpty()) ? fallback : name.substring(0, 1).toUpperCase();
+        }
+
+        @Override
+        public String toString() {
+            return title;
+        }
+    }
+
+    // --- Components ---
+
+    // Root of a composite renderer: paints the row background and lays out its children
+    public abstract static class CellPanel extends JPanel implements TableCellRenderer {
+
+        protected CellPanel(LayoutManager layout) {
+            super(layout);
+            setOpaque(true);
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                boolean isSelected, boolean hasFocus, int row, int column) {
+            setBackground(isSelected ? table.getSelectionBackground() : Color.WHITE);
+            configure(table, value, isSelected);
+            return this;
+        }
+
+        // Points the child components at value; must not allocate
+        protected abstract void configure(JTable table, Object value, boolean isSelected);
+
+        // Children still invalidate us so the layout follows their text; the chain stops at
+        // the CellRendererPane, so nothing is queued for the real component tree
+        @Override public void revalidate() { invalidate(); }
+        @Override public void repaint(long tm, int x, int y, int width, int height) {}
+        @Override public void repaint(Rectangle r) {}
+        @Override public void repaint() {}
+        @Override protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {}
+        @Override public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {}
+    }
+
+    // A label inside a CellPanel
+    public static class CellLabel extends JLabel {
+
+        public CellLabel(Font font, Color foreground) {
+            setFont(font);
+            setForeground(foreground);
+        }
+
+        @Override public void revalidate() { invalidate(); }
+        @Override public void repaint(long tm, int x, int y, int width, int height) {}
+        @Override public void repaint(Rectangle r) {}
+        @Override public void repaint() {}
+        @Override protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {}
+        @Override public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {}
+    }
+
+    // A label on a rounded background
+    public static class Pill extends CellLabel {
+        private final int arc;
+        private Color fill = Color.WHITE;
+
+        public Pill(Font font, int width, int height, int arc) {
+            super(font, Color.BLACK);
+            this.arc = arc;
+            setOpaque(false);
+            setHorizontalAlignment(SwingConstants.CENTER);
+            setPreferredSize(new Dimension(width, height));
+        }
+
+        public void setFill(Color fill) {
+            this.fill = fill;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(fill);
+            g2.fillRoundRect(0, 0, getWidth(), getHeight(), arc, arc);
+            super.paintComponent(g);
+        }
+    }
+
+    // A filled square/circle (arc == size) with a centered initial or icon
+    public static class Avatar extends JComponent {
+        private final int size;
+        private final int arc;
+        private Color fill = Color.LIGHT_GRAY;
+        private String text;
+        private Icon icon;
+
+        public Avatar(int size, int arc, Font font, Color foreground) {
+            this.size = size;
+            this.arc = arc;
+            setFont(font);
+            setForeground(foreground);
+            setPreferredSize(new Dimension(size, size));
+        }
+
+        public void set(Color fill, String text, Icon icon) {
+            this.fill = fill;
+            this.text = text;
+            this.icon = icon;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(fill);
+            g2.fillRoundRect(0, 0, size, size, arc, arc);
+
+            if (icon != null) {
+                icon.paintIcon(this, g2, (size - icon.getIconWidth()) / 2, (size - icon.getIconHeight()) / 2);
+            } else if (text != null) {
+                g2.setColor(getForeground());
+                g2.setFont(getFont());
+                FontMetrics fm = g2.getFontMetrics();
+                g2.drawString(text, (size - fm.stringWidth(text)) / 2, (size - fm.getHeight()) / 2 + fm.getAscent());
+            }
+        }
+
+        @Override public void revalidate() {}
+        @Override public void repaint(long tm, int x, int y, int width, int height) {}
+        @Override public void repaint(Rectangle r) {}
+        @Override public void repaint() {}
+        @Override protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {}
+        @Override public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) {}
+    }
+
+    // --- Renderers ---
+
+    // Renders Badge values as a centered pill of fixed size
+    public static class BadgeRenderer extends CellPanel {
+        private final Pill pill;
+
+        public BadgeRenderer(Font font, int width, int height, int arc) {
+            super(new FlowLayout(FlowLayout.CENTER, 10, 15));
+            pill = new Pill(font, width, height, arc);
+            add(pill);
+        }
+
+        @Override
+        protected void configure(JTable table, Object value, boolean isSelected) {
+            Badge badge = (Badge) value;
+            pill.setText(badge.text);
+            pill.setIcon(badge.icon);
+            pill.setForeground(badge.foreground);
+            pill.setFill(badge.fill);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package utils;
+
+import db.CancelToken;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.swing.JTextField;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Search-as-you-type for a text field.
+ *
+ * Each edit restarts a short timer; when typing pauses the query runs on a background
+ * thread under a CancelToken. A newer query cancels the older one, including its JDBC
+ * statement, and only the latest result is delivered (on the EDT). Enter searches at once.
+ */
+public class DebouncedSearch<T> {
+
+    public static final int DEFAULT_DELAY_MS = 250;
+
+    private final JTextField field;
+    private final Function<String, T> search;
+    private final Consumer<T> onResult;
+    private final Runnable onCleared;
+    private final Timer timer;
+
+    private String lastQuery = "";
+    private CancelToken inFlight;
+
+    // search runs off the EDT with the trimmed, non-empty query; onResult / onCleared run on the EDT
+    public DebouncedSearch(JTextField field, int delayMs, Function<String, T> search,
+                           Consumer<T> onResult, Runnable onCleared) {
+        this.field = field;
+        this.search = search;
+        this.onResult = onResult;
+        this.onCleared = onCleared;
+
+        timer = new Timer(delayMs, e -> fire(false));
+        timer.setRepeats(false);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { timer.restart(); }
+            public void removeUpdate(DocumentEvent e) { timer.restart(); }
+            public void changedUpdate(DocumentEvent e) { timer.restart(); }
+        });
+        field.addActionListener(e -> trigger());
+    }
+
+    public static <T> DebouncedSearch<T> attach(JTextField field, Function<String, T> search,
+                                                Consumer<T> onResult, Runnable onCleared) {
+        return new DebouncedSearch<>(field, DEFAULT_DELAY_MS, search, onResult, onCleared);
+    }
+
+    // Runs the current text now, even if it has not changed (e.g. Enter to re-query)
+    public void trigger() {
+        timer.stop();
+        fire(true);
+    }
+
+    public void cancel() {
+        timer.stop();
+        if (inFlight != null) {
+            CancelToken stale = inFlight;
+            inFlight = null;
+            BackgroundTasks.io().execute(stale::cancel); // Statement.cancel() talks to the server; keep it off the EDT
+        }
+    }
+
+    private void fire(boolean force) {
+        String query = field.getText().trim();
+        if (!force && query.equals(lastQuery)) return;
+        lastQuery = query;
+
+        cancel();
+        if (query.isEmpty()) {
+            onCleared.run();
+            return;
+        }
+
+        CancelToken token = new CancelToken();
+        inFlight = token;
+        CompletableFuture
+                .supplyAsync(() -> CancelToken.runWith(token, () -> search.apply(query)), BackgroundTasks.io())
+                .thenAcceptAsync(result -> {
+                    if (token != inFlight || token.isCancelled()) return; // Superseded while running
+                    inFlight = null;
+                    onResult.accept(result);
+                }, BackgroundTasks.EDT)
+                .exceptionally(ex -> {
+                    if (!token.isCancelled()) ex.printStackTrace();
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,257 @@
+package utils;
+
+import db.LatencyHistogram;
+import db.config;
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long each event takes on the Event Dispatch Thread and reports stalls.
+ *
+ * install() pushes an EventQueue that times every dispatch into a latency histogram (the
+ * dashboard's "UI latency" figure). A sampler thread watches the running dispatch and,
+ * once it passes EDT_STALL_THRESHOLD_MS, grabs the EDT's stack while it is still stuck -
+ * by the time the dispatch returns, the blocking call is gone from the stack. Each stall
+ * is printed to stderr and kept in getStalls(), attributed to the UI method that blocked
+ * (and the controller call it was waiting on, if any).
+ *
+ * A dispatch that opens a modal dialog is timed without the modal loop: the time the
+ * dialog waits on the user and the dialog's own events (measured separately) are left
+ * out, so the work done before and after the dialog still counts as one dispatch.
+ */
+public final class EdtWatchdog {
+
+    private static final int MAX_STALLS = 50;
+    private static final int PRINTED_FRAMES = 25;
+
+    private static final long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.getEdtStallThresholdMs()));
+    private static final LatencyHistogram latency = new LatencyHistogram();
+    private static volatile LatencyHistogram interval = new LatencyHistogram();
+    private static final ArrayDeque<Stall> stalls = new ArrayDeque<>();
+    private static long stallCount = 0;
+
+    private static volatile Dispatch current; // Innermost dispatch in progress, null when idle
+    private static boolean installed = false;
+
+    private EdtWatchdog() {}
+
+    // Call once at startup, before the first window is shown; does nothing when EDT_STALL_THRESHOLD_MS is 0
+    public static synchronized void install() {
+        if (installed || thresholdNanos <= 0) return;
+        installed = true;
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new WatchedQueue());
+
+        long sampleMs = Math.min(100, Math.max(10, TimeUnit.NANOSECONDS.toMillis(thresholdNanos) / 4));
+        Thread sampler = new Thread(() -> sample(sampleMs), "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    public static synchronized boolean isInstalled() {
+        return installed;
+    }
+
+    // --- METRICS ---
+
+    // Every dispatch since install()
+    public static LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    // Dispatches since the previous call (EDT only, e.g. from a Swing Timer)
+    public static LatencyHistogram takeInterval() {
+        LatencyHistogram taken = interval;
+        interval = new LatencyHistogram();
+        return taken;
+    }
+
+    public static synchronized long getStallCount() {
+        return stallCount;
+    }
+
+    // Most recent stalls, newest first
+    public static synchronized List<Stall> getStalls() {
+        return new ArrayList<>(stalls);
+    }
+
+    public static long getThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    // --- DISPATCH TIMING ---
+
+    private static final class WatchedQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            Dispatch outer = current;
+            if (outer != null) outer.pause(System.nanoTime()); // Nested in a modal loop
+            Dispatch d = new Dispatch(Thread.currentThread(), event);
+            current = d;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                long end = System.nanoTime();
+                d.pause(end);
+                current = outer;
+                if (outer != null) outer.resume(end);
+                finished(d, d.busyNanos);
+            }
+        }
+
+        // Only called with a dispatch in progress when a modal loop inside it waits for input
+        @Override
+        public AWTEvent getNextEvent() throws InterruptedException {
+            Dispatch d = current;
+            if (d != null) d.pause(System.nanoTime());
+            try {
+                return super.getNextEvent();
+            } finally {
+                if (d != null) d.resume(System.nanoTime());
+            }
+        }
+    }
+
+    private static void finished(Dispatch d, long nanos) {
+        latency.record(nanos);
+        interval.record(nanos);
+        if (nanos < thresholdNanos) return;
+
+        Stall stall = new Stall(LocalDateTime.now(), nanos, describe(d.event), d.stack);
+        synchronized (EdtWatchdog.class) {
+            stallCount++;
+            stalls.addFirst(stall);
+            if (stalls.size() > MAX_STALLS) stalls.removeLast();
+        }
+        System.err.print(stall.format());
+    }
+
+    private static void sample(long sampleMs) {
+        while (true) {
+            try {
+                Thread.sleep(sampleMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Dispatch d = current;
+            if (d != null && d.stack == null && !d.paused && d.busyNanos(System.nanoTime()) >= thresholdNanos) {
+                StackTraceElement[] stack = d.thread.getStackTrace();
+                if (!d.paused) d.stack = stack; // Not the modal loop idling
+            }
+        }
+    }
+
+    private static String describe(AWTEvent event) {
+        Object source = event.getSource();
+        String name = event.getClass().getSimpleName();
+        return source == null ? name : name + " on " + source.getClass().getSimpleName();
+    }
+
+    // Written on the EDT, read by the sampler
+    private static final class Dispatch {
+        final Thread thread;
+        final AWTEvent event;
+        volatile long start = System.nanoTime(); // Start of the current running segment
+        volatile long busyNanos = 0;             // Running time before that segment
+        volatile boolean paused = false;         // Inside a modal loop
+        volatile StackTraceElement[] stack;      // Captured by the sampler once over the threshold
+
+        Dispatch(Thread thread, AWTEvent event) {
+            this.thread = thread;
+            this.event = event;
+        }
+
+        long busyNanos(long now) {
+            return paused ? busyNanos : busyNanos + (now - start);
+        }
+
+        void pause(long now) {
+            if (paused) return;
+            busyNanos += now - start;
+            paused = true;
+        }
+
+        void resume(long now) {
+            start = now;
+            paused = false;
+        }
+    }
+
+    // --- STALLS ---
+
+    public static final class Stall {
+        private final LocalDateTime at;
+        private final long durationNanos;
+        private final String event;
+        private final StackTraceElement[] stack; // null when it ended before the sampler saw it
+        private final String culprit;
+
+        Stall(LocalDateTime at, long durationNanos, String event, StackTraceElement[] stack) {
+            this.at = at;
+            this.durationNanos = durationNanos;
+            this.event = event;
+            this.stack = stack;
+            this.culprit = culpritOf(stack);
+        }
+
+        public LocalDateTime getTime() { return at; }
+        public long getDurationMs() { return TimeUnit.NANOSECONDS.toMillis(durationNanos); }
+        public String getEvent() { return event; }
+        public String getCulprit() { return culprit; }
+        public StackTraceElement[] getStack() { return stack == null ? new StackTraceElement[0] : stack.clone(); }
+
+        String format() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("UI stall: ").append(getDurationMs()).append(" ms in ").append(culprit)
+                    .append(" (").append(event).append(")\n");
+            if (stack != null) {
+                for (int i = 0; i < stack.length && i < PRINTED_FRAMES; i++) {
+                    sb.append("\tat ").append(stack[i]).append('\n');
+                }
+                if (stack.length > PRINTED_FRAMES) sb.append("\t...\n");
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return at.withNano(0) + "  " + getDurationMs() + " ms  " + culprit;
+        }
+
+        // Innermost panel/view method on the stack, plus the controller method it was waiting on
+        private static String culpritOf(StackTraceElement[] stack) {
+            if (stack == null) return "(not sampled)";
+            String ui = null;
+            String controller = null;
+            for (StackTraceElement f : stack) {
+                String cls = f.getClassName();
+                if (controller == null && cls.startsWith("controllers.")) controller = shortName(f);
+                if (cls.startsWith("panels.") || cls.startsWith("views.")) {
+                    ui = shortName(f);
+                    break;
+                }
+            }
+            if (ui == null) return controller != null ? controller : shortName(stack.length > 0 ? stack[0] : null);
+            return controller == null ? ui : ui + " -> " + controller;
+        }
+
+        private static String shortName(StackTraceElement f) {
+            if (f == null) return "(unknown)";
+            String cls = f.getClassName();
+            cls = cls.substring(cls.lastIndexOf('.') + 1);
+            int inner = cls.indexOf('$');
+            if (inner > 0) cls = cls.substring(0, inner);
+            String method = f.getMethodName();
+            if (method.startsWith("lambda$")) {
+                int end = method.indexOf('$', 7);
+                if (end > 7) method = method.substring(7, end);
+            }
+            return cls + "." + method;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Read-only table model backed directly by a list of entities.
+ *
+ * Cell values are computed on demand by one accessor per column, so there is no
+ * Vector-of-Vectors copy of every row, and replacing the rows fires a single
+ * change event instead of one per addRow.
+ *
+ * A row's values are computed the first time it is painted and kept until the row is
+ * replaced, so accessors may build display objects (formatted text, badges) without
+ * repeating that work on every repaint. Rows must therefore not be mutated in place;
+ * use replace()/upsert() with the new version instead.
+ *
+ * With a key function set, rows are also indexed by key, so a keyed update finds its
+ * row in O(1) instead of scanning the table.
+ */
+public class EntityTableModel<T> extends AbstractTableModel {
+
+    private final String[] columns;
+    private final List<Function<? super T, ?>> accessors;
+    private List<T> rows = new ArrayList<>();
+    private List<Object[]> cells = new ArrayList<>(); // Parallel to rows; null until first read
+    private Function<? super T, ?> keyOf; // Identity of a row, for the keyed updates below
+    private final Map<Object, Integer> rowOfKey = new HashMap<>(); // key -> row index, when keyOf is set
+
+    @SafeVarargs
+    public EntityTableModel(String[] columns, Function<? super T, ?>... accessors) {
+        if (columns.length != accessors.length) {
+            throw new IllegalArgumentException("Expected one accessor per column");
+        }
+        this.columns = columns.clone();
+        // Copied element by element: handing the generic array on to another varargs method
+        // (List.of) is what -Xlint:varargs flags as possible heap pollution
+        List<Function<? super T, ?>> list = new ArrayList<>(accessors.length);
+        for (Function<? super T, ?> accessor : accessors) list.add(accessor);
+        this.accessors = Collections.unmodifiableList(list);
+    }
+
+    // Replaces every row with one table event
+    public void setRows(List<? extends T> newRows) {
+        rows = new ArrayList<>(newRows);
+        cells = new ArrayList<>(Collections.nCopies(rows.size(), null));
+        reindexFrom(0);
+        fireTableDataChanged();
+    }
+
+    // Adds rows at the end (e.g. the next page) without touching the existing ones
+    public void appendRows(List<? extends T> more) {
+        if (more.isEmpty()) return;
+        int first = rows.size();
+        rows.addAll(more);
+        cells.addAll(Collections.nCopies(more.size(), null));
+        reindexFrom(first);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    // Enables upsert/replace/removeKey; keyOf should return the entity's primary key
+    public void setKeyFunction(Function<? super T, ?> keyOf) {
+        this.keyOf = keyOf;
+        rowOfKey.clear();
+        reindexFrom(0);
+    }
+
+    public int indexOfKey(Object key) {
+        if (keyOf == null) throw new IllegalStateException("No key function set");
+        Integer i = rowOfKey.get(key);
+        return i == null ? -1 : i;
+    }
+
+    // Records the index of every row from first on (their positions are new or have shifted)
+    private void reindexFrom(int first) {
+        if (keyOf == null) return;
+        if (first == 0) rowOfKey.clear();
+        for (int i = first; i < rows.size(); i++) {
+            rowOfKey.put(keyOf.apply(rows.get(i)), i);
+        }
+    }
+
+    // Replaces the row with the same key in place; false if no such row is shown
+    public boolean replace(T row) {
+        int i = indexOfKey(keyOf.apply(row));
+        if (i < 0) return false;
+        rows.set(i, row);
+        cells.set(i, null);
+        fireTableRowsUpdated(i, i);
+        return true;
+    }
+
+    // Replaces the row with the same key, or appends it
+    public void upsert(T row) {
+        if (replace(row)) return;
+        rows.add(row);
+        cells.add(null);
+        rowOfKey.put(keyOf.apply(row), rows.size() - 1);
+        fireTableRowsInserted(rows.size() - 1, rows.size() - 1);
+    }
+
+    public boolean removeKey(Object key) {
+        int i = indexOfKey(key);
+        if (i < 0) return false;
+        rows.remove(i);
+        cells.remove(i);
+        rowOfKey.remove(key);
+        reindexFrom(i); // Rows below moved up by one
+        fireTableRowsDeleted(i, i);
+        return true;
+    }
+
+    public void clear() {
+        setRows(Collections.emptyList());
+    }
+
+    public T getRow(int modelRow) {
+        return rows.get(modelRow);
+    }
+
+    public List<T> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Object[] values = cells.get(row);
+        if (values == null) {
+            T entity = rows.get(row);
+            values = new Object[accessors.size()];
+            for (int c = 0; c < values.length; c++) {
+                values[c] = accessors.get(c).apply(entity);
+            }
+            cells.set(row, values);
+        }
+        return values[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+}
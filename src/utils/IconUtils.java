@@ -3,10 +3,26 @@ package utils;
 import java.awt.*;
 import java.awt.geom.*;
 import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.swing.*;
 
+/**
+ * Vector icons drawn on a 100x100 canvas and rasterized once per (type, size, color, scale).
+ *
+ * Rasters live in a bounded concurrent cache, so asking for an icon again (renderers do it
+ * on every paint) is a map lookup. Icons are rasterized at the screen's HiDPI scale and
+ * drawn back at their logical size, so they stay sharp on scaled displays; painting into a
+ * differently scaled Graphics (another monitor) fetches the matching raster.
+ */
 public class IconUtils {
 
+    // ~60 distinct icons are in use; the bound only guards against unbounded color/text variety
+    private static final int MAX_CACHED_ICONS = 512;
+    private static final ConcurrentHashMap<IconKey, CachedIcon> CACHE = new ConcurrentHashMap<>();
+    private static volatile double defaultScale = 0; // Resolved on first use
+
     // Icon Types
     public static final String ICON_PATIENT_GROUP = "PATIENT_GROUP";
     public static final String ICON_BED = "BED";
@@ -30,7 +46,74 @@ public class IconUtils {
     public static final String ICON_STAFF = "STAFF";
 
     public static Icon createIcon(String type, int size, Color color) {
-        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        return cached(type, null, size, color, defaultScale());
+    }
+
+    // Renders the dashboard's stat-card and toolbar icons ahead of time (call off the EDT)
+    public static void prewarm() {
+        Color blue = new Color(13, 110, 253), green = new Color(25, 135, 84), red = new Color(220, 53, 69);
+        Color yellow = new Color(255, 193, 7), purple = new Color(111, 66, 193), dark = new Color(50, 50, 50);
+
+        // Home
+        createIcon(ICON_PATIENT_GROUP, 24, new Color(66, 133, 244));
+        createIcon(ICON_DOCTOR, 24, new Color(15, 157, 88));
+        createIcon(ICON_BED, 24, new Color(244, 180, 0));
+        // Stat cards
+        createIcon(ICON_PATIENT_GROUP, 32, blue);
+        createIcon(ICON_BED, 32, green);
+        createIcon(ICON_BED, 32, yellow);
+        createIcon(ICON_ALERT, 32, red);
+        createIcon(ICON_HOSPITAL, 32, yellow);
+        createIcon(ICON_HOSPITAL, 32, blue);
+        createIcon(ICON_DOOR, 32, green);
+        createIcon(ICON_DOCTOR, 32, blue);
+        createIcon(ICON_HEART, 32, red);
+        createIcon(ICON_BRAIN, 32, purple);
+        createIcon(ICON_BABY, 32, yellow);
+        // Toolbars and action buttons
+        createIcon(ICON_REFRESH, 18, dark);
+        createIcon(ICON_PENCIL, 16, dark);
+        createIcon(ICON_EYE, 16, dark);
+        createIcon(ICON_TRASH, 16, Color.WHITE);
+    }
+
+    private static CachedIcon cached(String type, String text, int size, Color color, double scale) {
+        IconKey key = new IconKey(type, text, size, color.getRGB(), scale);
+        CachedIcon icon = CACHE.get(key);
+        if (icon != null) return icon;
+
+        icon = new CachedIcon(key, (text != null)
+                ? rasterizeCircle(text, color, size, scale)
+                : rasterize(type, size, color, scale));
+        if (CACHE.size() >= MAX_CACHED_ICONS) {
+            // Drop an arbitrary entry; it is simply re-rendered if asked for again
+            Iterator<IconKey> it = CACHE.keySet().iterator();
+            if (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        CachedIcon raced = CACHE.putIfAbsent(key, icon);
+        return (raced != null) ? raced : icon;
+    }
+
+    // The default screen's HiDPI scale (e.g. 2.0 on Retina / 200% Windows scaling)
+    private static double defaultScale() {
+        double scale = defaultScale;
+        if (scale == 0) {
+            scale = 1.0;
+            if (!GraphicsEnvironment.isHeadless()) {
+                scale = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                        .getDefaultConfiguration().getDefaultTransform().getScaleX();
+            }
+            defaultScale = scale;
+        }
+        return scale;
+    }
+
+    private static BufferedImage rasterize(String type, int size, Color color, double pixelScale) {
+        int pixels = (int) Math.ceil(size * pixelScale);
+        BufferedImage image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g2 = image.createGraphics();
         
         // Setup high-quality rendering
@@ -40,8 +123,8 @@ public class IconUtils {
         g2.setColor(color);
         
         // Draw based on type
-        // Scale factor: standard drawing on 100x100 canvas, then scale to size
-        double scale = size / 100.0;
+        // Scale factor: standard drawing on 100x100 canvas, then scale to the raster size
+        double scale = pixels / 100.0;
         AffineTransform oldTransform = g2.getTransform();
         g2.scale(scale, scale);
         
@@ -75,7 +158,7 @@ public class IconUtils {
             g2.dispose();
         }
         
-        return new ImageIcon(image);
+        return image;
     }
 
     // --- Drawing Primitives (Assumes 100x100 box) ---
@@ -377,9 +460,15 @@ public class IconUtils {
     
     // --- Helper for Avatars ---
     public static Icon createCircleIcon(String text, Color bg, int size) {
-        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        return cached(null, text, size, bg, defaultScale());
+    }
+
+    private static BufferedImage rasterizeCircle(String text, Color bg, int size, double pixelScale) {
+        BufferedImage img = new BufferedImage((int) Math.ceil(size * pixelScale), (int) Math.ceil(size * pixelScale),
+                BufferedImage.TYPE_INT_ARGB);
         Graphics2D g2 = img.createGraphics();
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.scale(pixelScale, pixelScale); // Draw in logical units
         
         // Circle
         g2.setColor(bg);
@@ -394,6 +483,69 @@ public class IconUtils {
         g2.drawString(text, x, y);
         
         g2.dispose();
-        return new ImageIcon(img);
+        return img;
+    }
+
+    private static final class IconKey {
+        final String type;  // Vector icon type, or null for a circle icon
+        final String text;  // Circle icon text, or null
+        final int size;
+        final int rgb;
+        final double scale;
+
+        IconKey(String type, String text, int size, int rgb, double scale) {
+            this.type = type;
+            this.text = text;
+            this.size = size;
+            this.rgb = rgb;
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof IconKey)) return false;
+            IconKey k = (IconKey) o;
+            return size == k.size && rgb == k.rgb && scale == k.scale
+                    && Objects.equals(type, k.type) && Objects.equals(text, k.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, text, size, rgb, scale);
+        }
+    }
+
+    // Immutable, shareable icon: a pre-rendered raster drawn at its logical size
+    private static final class CachedIcon implements Icon {
+        private final IconKey key;
+        private final BufferedImage image;
+
+        CachedIcon(IconKey key, BufferedImage image) {
+            this.key = key;
+            this.image = image;
+        }
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            Image raster = image;
+            if (g instanceof Graphics2D) {
+                double scale = ((Graphics2D) g).getTransform().getScaleX();
+                if (scale != key.scale && scale > 0) {
+                    // Painting on a screen with another scale: use (and cache) a raster made for it
+                    raster = cached(key.type, key.text, key.size, new Color(key.rgb, true), scale).image;
+                }
+            }
+            g.drawImage(raster, x, y, key.size, key.size, null);
+        }
+
+        @Override
+        public int getIconWidth() {
+            return key.size;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return key.size;
+        }
     }
 }
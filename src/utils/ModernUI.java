@@ -165,21 +165,25 @@ public class ModernUI {
         header.setReorderingAllowed(false);
         
         header.setDefaultRenderer(new javax.swing.table.DefaultTableCellRenderer() {
+            private final Font font = new Font("Segoe UI", Font.BOLD, 12);
+            private final Color background = new Color(248, 249, 250);
+            private final Color foreground = new Color(108, 120, 130);
+            private final javax.swing.border.Border border = BorderFactory.createCompoundBorder(
+                    BorderFactory.createMatteBorder(0, 0, 2, 0, new Color(230, 230, 230)),
+                    new EmptyBorder(0, 5, 0, 5));
+
+            {
+                setHorizontalAlignment(SwingConstants.CENTER);
+            }
+
             @Override
             public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
                 String title = value != null ? value.toString().toUpperCase() : "";
                 JLabel label = (JLabel) super.getTableCellRendererComponent(table, title, isSelected, hasFocus, row, column);
-                
-                label.setFont(new Font("Segoe UI", Font.BOLD, 12));
-                label.setBackground(new Color(248, 249, 250)); 
-                label.setForeground(new Color(108, 120, 130));
-                
-                label.setBorder(BorderFactory.createCompoundBorder(
-                    BorderFactory.createMatteBorder(0, 0, 2, 0, new Color(230, 230, 230)),
-                    new EmptyBorder(0, 5, 0, 5)
-                ));
-                
-                label.setHorizontalAlignment(SwingConstants.CENTER);
+                label.setFont(font);
+                label.setBackground(background);
+                label.setForeground(foreground);
+                label.setBorder(border);
                 return label;
             }
         });
@@ -192,22 +196,23 @@ public class ModernUI {
         return renderer;
     }
 
+    private static final Color[] AVATAR_COLORS = {
+        new Color(13, 110, 253), // Blue
+        new Color(102, 16, 242), // Purple
+        new Color(111, 66, 193), // Indigo
+        new Color(214, 51, 132), // Pink
+        new Color(220, 53, 69),  // Red
+        new Color(253, 126, 20), // Orange
+        new Color(255, 193, 7),  // Yellow
+        new Color(25, 135, 84),  // Green
+        new Color(32, 201, 151), // Teal
+        new Color(13, 202, 240)  // Cyan
+    };
+
     public static Color getAvatarColor(String name) {
         if (name == null || name.isEmpty()) return TEXT_GRAY;
         int hash = Math.abs(name.hashCode());
-        Color[] colors = {
-            new Color(13, 110, 253), // Blue
-            new Color(102, 16, 242), // Purple
-            new Color(111, 66, 193), // Indigo
-            new Color(214, 51, 132), // Pink
-            new Color(220, 53, 69),  // Red
-            new Color(253, 126, 20), // Orange
-            new Color(255, 193, 7),  // Yellow
-            new Color(25, 135, 84),  // Green
-            new Color(32, 201, 151), // Teal
-            new Color(13, 202, 240)  // Cyan
-        };
-        return colors[hash % colors.length];
+        return AVATAR_COLORS[hash % AVATAR_COLORS.length];
     }
 
     // ==========================================
@@ -215,6 +220,11 @@ public class ModernUI {
     // ==========================================
 
     public static JPanel createStatsCard(String title, String value, String badge, Icon icon, Color bg, Color accent) {
+        return createStatsCard(title, new JLabel(value), new JLabel(badge), icon, bg, accent);
+    }
+
+    // Keeps valueLabel/badgeLabel live, so figures loaded in the background can be filled in later
+    public static JPanel createStatsCard(String title, JLabel valueLabel, JLabel badgeLabel, Icon icon, Color bg, Color accent) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(Color.WHITE);
         card.setBorder(BorderFactory.createCompoundBorder(
@@ -227,15 +237,14 @@ public class ModernUI {
         top.setOpaque(false);
         JLabel lblIcon = new JLabel(icon);
         
-        JLabel lblBadge = new JLabel(badge);
-        lblBadge.setFont(new Font("Segoe UI", Font.BOLD, 11));
-        lblBadge.setForeground(accent);
-        lblBadge.setBackground(bg);
-        lblBadge.setOpaque(true);
-        lblBadge.setBorder(new EmptyBorder(2, 6, 2, 6));
+        badgeLabel.setFont(new Font("Segoe UI", Font.BOLD, 11));
+        badgeLabel.setForeground(accent);
+        badgeLabel.setBackground(bg);
+        badgeLabel.setOpaque(true);
+        badgeLabel.setBorder(new EmptyBorder(2, 6, 2, 6));
         
         top.add(lblIcon, BorderLayout.WEST);
-        top.add(lblBadge, BorderLayout.EAST);
+        top.add(badgeLabel, BorderLayout.EAST);
         
         // Bottom Row: Label + Number
         JPanel bot = new JPanel(new GridLayout(2, 1, 0, 5));
@@ -246,12 +255,11 @@ public class ModernUI {
         lblTitle.setFont(new Font("Segoe UI", Font.PLAIN, 13));
         lblTitle.setForeground(TEXT_GRAY);
         
-        JLabel lblVal = new JLabel(value);
-        lblVal.setFont(new Font("Segoe UI", Font.BOLD, 22));
-        lblVal.setForeground(TEXT_DARK);
+        valueLabel.setFont(new Font("Segoe UI", Font.BOLD, 22));
+        valueLabel.setForeground(TEXT_DARK);
         
         bot.add(lblTitle);
-        bot.add(lblVal);
+        bot.add(valueLabel);
         
         card.add(top, BorderLayout.NORTH);
         card.add(bot, BorderLayout.CENTER);
@@ -0,0 +1,62 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event for one RefreshScheduler cycle: the background fetch, the
+ * wait for the EDT and the Swing update, so database time and rendering time of e.g.
+ * "patients.page" show up side by side with GC and thread activity.
+ *
+ * The event spans fetch start to render end and is committed on the EDT. When no recording
+ * is running, start() returns null and nothing is allocated.
+ */
+@Name("hms.PanelRefresh")
+@Label("Panel Refresh")
+@Category({"Hospital Management", "UI"})
+@Description("A panel refresh: database fetch on a background thread, then the table/card update on the EDT")
+@StackTrace(false)
+public class PanelRefreshEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(PanelRefreshEvent.class);
+
+    @Label("Panel")
+    String panel;
+
+    @Label("Refresh Key")
+    String key;
+
+    @Label("Fetch Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long fetchTime;
+
+    @Label("EDT Wait")
+    @Description("Time between the fetch finishing and the EDT picking up the result")
+    @Timespan(Timespan.NANOSECONDS)
+    long edtWait;
+
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long renderTime;
+
+    @Label("Outcome")
+    @Description("applied, superseded (a newer refresh won), failed or cancelled")
+    String outcome;
+
+    // Begins an event for key ("patients.page") if JFR is recording it
+    static PanelRefreshEvent start(String key) {
+        if (!TYPE.isEnabled()) return null;
+        PanelRefreshEvent event = new PanelRefreshEvent();
+        int dot = key.indexOf('.');
+        event.panel = dot > 0 ? key.substring(0, dot) : key;
+        event.key = key;
+        event.begin();
+        return event;
+    }
+}
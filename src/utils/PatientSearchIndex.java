@@ -0,0 +1,183 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import models.Patient;
+
+/**
+ * In-memory filter index over the loaded patients.
+ *
+ * Everything a filter needs is computed once when a patient is added: lower-cased name
+ * and id, a trigram posting list over both, and bitsets per department and status. A
+ * filter call then only intersects bitsets and walks the shortest posting list, verifying
+ * candidates against the precomputed strings - no per-row allocation or hashing.
+ *
+ * Patients live in append-only slots; upsert/remove just flip the slot's alive bit.
+ * Not thread-safe: use it from the EDT like the table it feeds.
+ */
+public class PatientSearchIndex {
+
+    private static final String NO_DEPARTMENT = "unassigned";
+
+    private final Function<Patient, String> statusOf;
+
+    private final List<Patient> patients = new ArrayList<>();
+    private final List<String> lowerNames = new ArrayList<>();
+    private final List<String> lowerIds = new ArrayList<>();
+    private final Map<String, Integer> slotById = new HashMap<>();
+    private final BitSet alive = new BitSet();
+
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+    private final Map<String, BitSet> byDepartment = new HashMap<>();
+    private final Map<String, BitSet> byStatus = new HashMap<>();
+
+    // statusOf derives the Status column, which is not stored on Patient
+    public PatientSearchIndex(Function<Patient, String> statusOf) {
+        this.statusOf = statusOf;
+    }
+
+    public void clear() {
+        patients.clear();
+        lowerNames.clear();
+        lowerIds.clear();
+        slotById.clear();
+        alive.clear();
+        trigrams.clear();
+        byDepartment.clear();
+        byStatus.clear();
+    }
+
+    // Returns the first slot used, so callers can filter just the new rows
+    public int addAll(List<Patient> list) {
+        int first = patients.size();
+        for (Patient p : list) upsert(p);
+        return first;
+    }
+
+    // Adds the patient, replacing any previous version with the same id; returns its new slot
+    public int upsert(Patient p) {
+        remove(p.getPatientId());
+
+        int slot = patients.size();
+        String name = p.getName() != null ? p.getName().toLowerCase(Locale.ROOT) : "";
+        String id = p.getPatientId().toLowerCase(Locale.ROOT);
+        patients.add(p);
+        lowerNames.add(name);
+        lowerIds.add(id);
+        slotById.put(p.getPatientId(), slot);
+        alive.set(slot);
+
+        indexTrigrams(name, slot);
+        indexTrigrams(id, slot);
+        byDepartment.computeIfAbsent(departmentKey(p), k -> new BitSet()).set(slot);
+        byStatus.computeIfAbsent(statusOf.apply(p).toLowerCase(Locale.ROOT), k -> new BitSet()).set(slot);
+        return slot;
+    }
+
+    public void remove(String patientId) {
+        Integer slot = slotById.remove(patientId);
+        if (slot != null) alive.clear(slot);
+    }
+
+    public boolean contains(String patientId) {
+        return slotById.containsKey(patientId);
+    }
+
+    // The loaded version of a patient, or null
+    public Patient get(String patientId) {
+        Integer slot = slotById.get(patientId);
+        return (slot != null) ? patients.get(slot) : null;
+    }
+
+    // Loaded patients with the given status; a bitset count, no per-row work
+    public int countWithStatus(String status) {
+        BitSet bits = byStatus.get(status.toLowerCase(Locale.ROOT));
+        if (bits == null) return 0;
+        BitSet live = (BitSet) bits.clone();
+        live.and(alive);
+        return live.cardinality();
+    }
+
+    public int size() {
+        return slotById.size();
+    }
+
+    public List<Patient> filter(String query, String department, String status) {
+        return filter(query, department, status, 0);
+    }
+
+    // Patients from fromSlot on whose name or id contains query (case-insensitive) and that match
+    // the department / status filters (null = any), in load order.
+    public List<Patient> filter(String query, String department, String status, int fromSlot) {
+        List<Patient> result = new ArrayList<>();
+
+        BitSet mask = (BitSet) alive.clone();
+        if (fromSlot > 0) mask.clear(0, fromSlot);
+        if (department != null) mask.and(bitsOrEmpty(byDepartment, department.toLowerCase(Locale.ROOT)));
+        if (status != null) mask.and(bitsOrEmpty(byStatus, status.toLowerCase(Locale.ROOT)));
+
+        String q = (query == null) ? "" : query.trim().toLowerCase(Locale.ROOT);
+
+        if (q.length() < 3) {
+            // Too short for trigrams: check the precomputed strings directly
+            for (int slot = mask.nextSetBit(0); slot >= 0; slot = mask.nextSetBit(slot + 1)) {
+                if (q.isEmpty() || matches(slot, q)) result.add(patients.get(slot));
+            }
+            return result;
+        }
+
+        // Walk the rarest trigram's postings; every match must contain all of the query's trigrams
+        Postings rarest = null;
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            Postings p = trigrams.get(key(q, i));
+            if (p == null) return result;
+            if (rarest == null || p.size < rarest.size) rarest = p;
+        }
+        for (int i = 0; i < rarest.size; i++) {
+            int slot = rarest.slots[i];
+            if (mask.get(slot) && matches(slot, q)) result.add(patients.get(slot));
+        }
+        return result;
+    }
+
+    private boolean matches(int slot, String q) {
+        return lowerNames.get(slot).contains(q) || lowerIds.get(slot).contains(q);
+    }
+
+    private void indexTrigrams(String text, int slot) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            trigrams.computeIfAbsent(key(text, i), k -> new Postings()).add(slot);
+        }
+    }
+
+    private static long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static String departmentKey(Patient p) {
+        String spec = (p.getDoctor() != null) ? p.getDoctor().getSpecialization() : null;
+        return (spec != null) ? spec.toLowerCase(Locale.ROOT) : NO_DEPARTMENT;
+    }
+
+    private static BitSet bitsOrEmpty(Map<String, BitSet> map, String key) {
+        BitSet bits = map.get(key);
+        return (bits != null) ? bits : new BitSet();
+    }
+
+    // Growable, ascending list of slots containing one trigram
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size > 0 && slots[size - 1] == slot) return; // Same trigram twice in one patient
+            if (size == slots.length) slots = java.util.Arrays.copyOf(slots, size * 2);
+            slots[size++] = slot;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package utils;
+
+import db.CancelToken;
+import db.config;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs panel refreshes against the database, one logical refresh per key (e.g. "rooms").
+ *
+ * - Coalescing: a refresh still waiting for a slot is replaced by a newer one for the same key.
+ * - Cancellation: a newer refresh cancels the running one (its JDBC statements included).
+ * - Ordering: results are applied on the EDT only if no newer refresh for the key was
+ *   submitted, so a slow old load can never overwrite a fresher one.
+ * - Concurrency: at most REFRESH_MAX_CONCURRENCY fetches run at once, whatever the key.
+ *
+ * Every cycle is reported to Java Flight Recorder as a PanelRefreshEvent.
+ */
+public class RefreshScheduler {
+
+    private static final RefreshScheduler SHARED = new RefreshScheduler(config.getRefreshMaxConcurrency());
+
+    private final int maxConcurrent;
+    private final LinkedHashMap<String, Request<?>> pending = new LinkedHashMap<>(); // FIFO by first submit
+    private final Map<String, Request<?>> running = new HashMap<>();
+    private final Map<String, Long> latest = new HashMap<>();
+    private long nextGeneration = 0;
+    private int runningCount = 0;
+
+    public RefreshScheduler(int maxConcurrent) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    public static RefreshScheduler shared() {
+        return SHARED;
+    }
+
+    public <T> void submit(String key, Supplier<T> fetch, Consumer<T> apply) {
+        submit(key, fetch, apply, Throwable::printStackTrace);
+    }
+
+    // fetch runs on a background thread; apply and onError run on the EDT
+    public <T> void submit(String key, Supplier<T> fetch, Consumer<T> apply, Consumer<Throwable> onError) {
+        Request<T> request;
+        synchronized (this) {
+            request = new Request<>(key, ++nextGeneration, fetch, apply, onError);
+            latest.put(key, request.generation);
+            pending.remove(key); // Coalesce: the queued one never runs
+            Request<?> superseded = running.get(key);
+            if (superseded != null) BackgroundTasks.io().execute(superseded.token::cancel);
+            pending.put(key, request);
+        }
+        drain();
+    }
+
+    // Drops queued work and cancels the running fetch for key; nothing more is applied for it
+    public void cancel(String key) {
+        Request<?> superseded;
+        synchronized (this) {
+            latest.put(key, ++nextGeneration);
+            pending.remove(key);
+            superseded = running.get(key);
+        }
+        if (superseded != null) superseded.token.cancel();
+    }
+
+    private void drain() {
+        while (true) {
+            Request<?> next = null;
+            synchronized (this) {
+                if (runningCount >= maxConcurrent) return;
+                // Oldest request whose key has nothing in flight: a cancelled fetch still
+                // finishing keeps its successor waiting, so one key never holds two slots
+                for (Iterator<Request<?>> it = pending.values().iterator(); it.hasNext(); ) {
+                    Request<?> candidate = it.next();
+                    if (!running.containsKey(candidate.key)) {
+                        it.remove();
+                        next = candidate;
+                        break;
+                    }
+                }
+                if (next == null) return;
+                running.put(next.key, next);
+                runningCount++;
+            }
+            BackgroundTasks.io().execute(next::run);
+        }
+    }
+
+    private synchronized boolean isLatest(Request<?> request) {
+        Long current = latest.get(request.key);
+        return current != null && current == request.generation;
+    }
+
+    private void finished(Request<?> request) {
+        synchronized (this) {
+            running.remove(request.key);
+            runningCount--;
+        }
+        drain();
+    }
+
+    private final class Request<T> {
+        final String key;
+        final long generation;
+        final Supplier<T> fetch;
+        final Consumer<T> apply;
+        final Consumer<Throwable> onError;
+        final CancelToken token = new CancelToken();
+
+        Request(String key, long generation, Supplier<T> fetch, Consumer<T> apply, Consumer<Throwable> onError) {
+            this.key = key;
+            this.generation = generation;
+            this.fetch = fetch;
+            this.apply = apply;
+            this.onError = onError;
+        }
+
+        void run() {
+            PanelRefreshEvent event = null;
+            try {
+                if (!isLatest(this)) return; // Superseded before it started
+                event = PanelRefreshEvent.start(key); // null unless a JFR recording wants it
+                long fetchStart = System.nanoTime();
+                T result = CancelToken.runWith(token, fetch);
+                long fetched = System.nanoTime();
+                PanelRefreshEvent timed = event;
+                if (timed != null) timed.fetchTime = fetched - fetchStart;
+                BackgroundTasks.EDT.execute(() -> {
+                    long renderStart = System.nanoTime();
+                    boolean applied = isLatest(this);
+                    if (applied) apply.accept(result);
+                    if (timed != null) {
+                        timed.edtWait = renderStart - fetched;
+                        timed.renderTime = System.nanoTime() - renderStart;
+                        timed.outcome = applied ? "applied" : "superseded";
+                        timed.commit();
+                    }
+                });
+            } catch (RuntimeException e) {
+                if (event != null) {
+                    event.outcome = token.isCancelled() ? "cancelled" : "failed";
+                    event.commit();
+                }
+                if (!token.isCancelled()) {
+                    BackgroundTasks.EDT.execute(() -> {
+                        if (isLatest(this)) onError.accept(e);
+                    });
+                }
+            } finally {
+                finished(this);
+            }
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package views;
 
 import controllers.HospitalManagementController;
+import db.ChangeEvent;
+import db.ChangeFeedListener;
+import db.LatencyHistogram;
+import db.config;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import models.DashboardSnapshot;
 import models.User;
 import panels.*;
+import utils.EdtWatchdog;
 import utils.ModernUI;
 
 public class HospitalDashboard extends JFrame {
@@ -15,6 +25,8 @@ public class HospitalDashboard extends JFrame {
     private HospitalManagementController hmc;
 
     // Logic Variables
+    private final User user;
+    private final String doctorFilterId;
 
     private JPanel contentPanel;
     private CardLayout cardLayout;
@@ -32,13 +44,15 @@ public class HospitalDashboard extends JFrame {
     private Color inactiveTextColor = new Color(100, 100, 100);
     private Color borderColor = new Color(230, 230, 230);
 
-    // Panels
+    // Panels: Home is built up front; the rest on first visit (or by the pre-warm), each into its
+    // placeholder card, so opening the dashboard only costs the Home tab's queries
     private HomePanel homePanel;
     private PatientPanel patientPanel;
     private DoctorPanel doctorPanel;
     private RoomPanel roomPanel;
     private UserManagementPanel userMgmtPanel;
     private HistoryPanel historyPanel;
+    private final java.util.Map<String, JPanel> placeholders = new java.util.HashMap<>();
 
     // Track active button
     private JButton currentActiveButton = null;
@@ -46,11 +60,34 @@ public class HospitalDashboard extends JFrame {
     // Header components
     private JLabel lblPageTitle;
     private JButton btnHome; 
+    private JLabel lblUiLatency;
+    private Timer uiLatencyTimer;
+    private static final int UI_LATENCY_REFRESH_MS = 2000;
+
+    // Live updates: panels patch themselves from the change feed instead of reloading on every tab click
+    private final ChangeFeedListener changeFeed = ChangeFeedListener.getInstance();
+    private final ChangeFeedListener.Subscriber changeSubscriber = new ChangeFeedListener.Subscriber() {
+        @Override
+        public void onChanges(List<ChangeEvent> events) {
+            SwingUtilities.invokeLater(() -> applyChanges(events));
+        }
+
+        @Override
+        public void onResync() {
+            SwingUtilities.invokeLater(() -> reloadAll());
+        }
+    };
 
     public HospitalDashboard(User user) {
+        this(user, new HospitalManagementController(), null);
+    }
+
+    // hmc and homeSnapshot may come prefetched from the login screen; a null snapshot is loaded here
+    public HospitalDashboard(User user, HospitalManagementController hmc, DashboardSnapshot homeSnapshot) {
 
         // 1. Initialize Controller
-        hmc = new HospitalManagementController();
+        this.hmc = hmc;
+        this.user = user;
 
         // 2. Main Frame Setup
         setTitle("MediCare - " + user.getRole() + " Portal");
@@ -62,17 +99,10 @@ public class HospitalDashboard extends JFrame {
         // 3. Permission Logic
         boolean isAdmin = user.isAdmin();
         boolean isDoctor = user.isDoctor();
-        String doctorFilterId = isDoctor ? user.getLinkedId() : null;
+        this.doctorFilterId = isDoctor ? user.getLinkedId() : null;
 
-        // 4. Initialize Panels
-        homePanel = new HomePanel(hmc);
-        patientPanel = new PatientPanel(hmc, user, doctorFilterId);
-        doctorPanel = new DoctorPanel(hmc, isAdmin);
-        roomPanel = new RoomPanel(hmc, isAdmin);
-        if (isAdmin) {
-            userMgmtPanel = new UserManagementPanel();
-        }
-        historyPanel = new HistoryPanel(hmc);
+        // 4. Initialize Panels (the others are built lazily, see patients() etc.)
+        homePanel = new HomePanel(hmc, homeSnapshot);
 
         // =======================================================
         // UI IMPLEMENTATION
@@ -166,6 +196,16 @@ public class HospitalDashboard extends JFrame {
         JPanel topRightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 15, 0));
         topRightPanel.setBackground(contentColor);
 
+        // UI responsiveness over the last refresh interval (see EdtWatchdog)
+        if (EdtWatchdog.isInstalled()) {
+            lblUiLatency = new JLabel("UI latency: -");
+            lblUiLatency.setFont(new Font("SansSerif", Font.PLAIN, 11));
+            lblUiLatency.setForeground(ModernUI.TEXT_GRAY);
+            topRightPanel.add(lblUiLatency);
+            uiLatencyTimer = new Timer(UI_LATENCY_REFRESH_MS, e -> updateUiLatency());
+            uiLatencyTimer.start();
+        }
+
         // Search Field
         JTextField searchField = ModernUI.createSearchField(" Search records...");
         searchField.setPreferredSize(new Dimension(200, 35));
@@ -198,15 +238,15 @@ public class HospitalDashboard extends JFrame {
         contentPanel.setBorder(new EmptyBorder(0, 30, 30, 30));
 
         contentPanel.add(homePanel, "Home");
-        contentPanel.add(patientPanel, "Patients");
+        contentPanel.add(createPlaceholder("Patients"), "Patients");
         if (!isDoctor) {
-            contentPanel.add(doctorPanel, "Doctors");
-            contentPanel.add(roomPanel, "Rooms");
+            contentPanel.add(createPlaceholder("Doctors"), "Doctors");
+            contentPanel.add(createPlaceholder("Rooms"), "Rooms");
         }
         if (isAdmin) {
-            contentPanel.add(userMgmtPanel, "Users");
+            contentPanel.add(createPlaceholder("Users"), "Users");
         }
-        contentPanel.add(historyPanel, "History");
+        contentPanel.add(createPlaceholder("History"), "History");
 
         mainContainer.add(contentPanel, BorderLayout.CENTER);
         add(mainContainer, BorderLayout.CENTER);
@@ -215,46 +255,197 @@ public class HospitalDashboard extends JFrame {
         // EVENT LISTENERS
         // =======================================================
         
+        // With the change feed up, panels are already current (or flagged stale) and a tab
+        // click only reloads what is stale; without it we fall back to reloading every time.
+        // A panel built by the click has just started its first load, so it is left alone.
         btnHome.addActionListener(e -> {
             switchTab("Home", "Dashboard Overview", btnHome);
-            homePanel.refreshData();
+            if (changeFeed.isListening()) homePanel.refreshIfStale();
+            else homePanel.refreshData();
         });
 
         btnPatients.addActionListener(e -> {
+            boolean built = (patientPanel != null);
+            patients();
             switchTab("Patients", "Patient Management", btnPatients);
-            patientPanel.refreshTable(null);
+            if (!built) return;
+            if (changeFeed.isListening()) patientPanel.refreshIfStale();
+            else patientPanel.refreshTable(null);
         });
 
         btnHistory.addActionListener(e -> {
+            boolean built = (historyPanel != null);
+            history();
             switchTab("History", "Patient Discharge History", btnHistory);
-            historyPanel.loadData();
+            if (!built) return;
+            if (changeFeed.isListening()) historyPanel.refreshIfStale();
+            else historyPanel.loadData();
         });
 
         if (btnDoctors != null) {
             JButton finalBtnDoctors = btnDoctors;
             btnDoctors.addActionListener(e -> {
+                boolean built = (doctorPanel != null);
+                doctors();
                 switchTab("Doctors", "Medical Staff", finalBtnDoctors);
-                doctorPanel.refreshTable(null);
+                if (built && !changeFeed.isListening()) doctorPanel.refreshTable(null);
             });
         }
 
         if (btnRooms != null) {
             JButton finalBtnRooms = btnRooms;
             btnRooms.addActionListener(e -> {
+                boolean built = (roomPanel != null);
+                rooms();
                 switchTab("Rooms", "Hospital Inventory & Rooms", finalBtnRooms);
-                roomPanel.refreshTable(null);
+                if (built && !changeFeed.isListening()) roomPanel.refreshTable(null);
             });
         }
 
         if (btnUsers != null) {
             JButton finalBtnUsers = btnUsers;
             btnUsers.addActionListener(e -> {
+                users();
                 switchTab("Users", "User Settings", finalBtnUsers);
             });
         }
 
         // Set Default View
         switchTab("Home", "Dashboard Overview", btnHome);
+
+        changeFeed.subscribe(changeSubscriber);
+        schedulePrewarm();
+    }
+
+    // --- LAZY PANELS ---
+
+    private PatientPanel patients() {
+        if (patientPanel == null) {
+            patientPanel = new PatientPanel(hmc, user, doctorFilterId); // Starts its first page load
+            install("Patients", patientPanel);
+        }
+        return patientPanel;
+    }
+
+    private HistoryPanel history() {
+        if (historyPanel == null) {
+            historyPanel = new HistoryPanel(hmc);
+            install("History", historyPanel);
+        }
+        return historyPanel;
+    }
+
+    private DoctorPanel doctors() {
+        if (doctorPanel == null) {
+            doctorPanel = new DoctorPanel(hmc, user.isAdmin());
+            install("Doctors", doctorPanel);
+        }
+        return doctorPanel;
+    }
+
+    private RoomPanel rooms() {
+        if (roomPanel == null) {
+            roomPanel = new RoomPanel(hmc, user.isAdmin());
+            install("Rooms", roomPanel);
+        }
+        return roomPanel;
+    }
+
+    private UserManagementPanel users() {
+        if (userMgmtPanel == null) {
+            userMgmtPanel = new UserManagementPanel();
+            install("Users", userMgmtPanel);
+        }
+        return userMgmtPanel;
+    }
+
+    private JPanel createPlaceholder(String cardName) {
+        JPanel card = new JPanel(new BorderLayout());
+        card.setOpaque(false);
+        placeholders.put(cardName, card);
+        return card;
+    }
+
+    // Puts a freshly built panel into its placeholder card
+    private void install(String cardName, JComponent panel) {
+        JPanel card = placeholders.get(cardName);
+        card.add(panel, BorderLayout.CENTER);
+        card.revalidate();
+    }
+
+    // After the dashboard is on screen, builds the remaining tabs one per timer tick so their
+    // first loads overlap idle time instead of the first click (PANEL_PREWARM_DELAY_MS, 0 = off)
+    private void schedulePrewarm() {
+        int delay = config.getPanelPrewarmDelayMs();
+        if (delay <= 0) return;
+
+        List<Runnable> builders = new java.util.ArrayList<>();
+        builders.add(this::patients);
+        builders.add(this::history);
+        if (!user.isDoctor()) {
+            builders.add(this::doctors);
+            builders.add(this::rooms);
+        }
+        if (user.isAdmin()) builders.add(this::users);
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                Timer timer = new Timer(delay, null);
+                timer.addActionListener(ev -> {
+                    if (builders.isEmpty() || !isDisplayable()) {
+                        timer.stop();
+                        return;
+                    }
+                    builders.remove(0).run();
+                });
+                timer.start();
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        changeFeed.unsubscribe(changeSubscriber); // Logout: stop feeding panels of a closed window
+        if (uiLatencyTimer != null) uiLatencyTimer.stop();
+        super.dispose();
+    }
+
+    // p95/max of the events handled since the last tick; red once any of them stalled
+    private void updateUiLatency() {
+        LatencyHistogram recent = EdtWatchdog.takeInterval();
+        long p95 = Math.round(recent.getPercentileMillis(95));
+        long max = TimeUnit.NANOSECONDS.toMillis(recent.getMaxNanos());
+        lblUiLatency.setText("UI latency: p95 " + p95 + " ms, max " + max + " ms");
+        lblUiLatency.setForeground(max >= EdtWatchdog.getThresholdMs() ? ModernUI.DANGER_COLOR : ModernUI.TEXT_GRAY);
+
+        LatencyHistogram all = EdtWatchdog.getLatency();
+        StringBuilder tip = new StringBuilder("<html>Since start: ");
+        tip.append(String.format("p50 %.0f ms, p95 %.0f ms, p99 %.0f ms",
+                all.getPercentileMillis(50), all.getPercentileMillis(95), all.getPercentileMillis(99)));
+        tip.append("<br>Stalls over ").append(EdtWatchdog.getThresholdMs()).append(" ms: ").append(EdtWatchdog.getStallCount());
+        List<EdtWatchdog.Stall> stalls = EdtWatchdog.getStalls();
+        if (!stalls.isEmpty()) tip.append("<br>Last: ").append(stalls.get(0));
+        lblUiLatency.setToolTipText(tip.append("</html>").toString());
+    }
+
+    // Hands a batch of row changes to every panel (EDT)
+    // Panels not built yet are skipped: they load fresh data when they are
+    private void applyChanges(List<ChangeEvent> events) {
+        homePanel.applyChanges(events);
+        if (patientPanel != null) patientPanel.applyChanges(events);
+        if (doctorPanel != null) doctorPanel.applyChanges(events);
+        if (roomPanel != null) roomPanel.applyChanges(events);
+        if (historyPanel != null) historyPanel.applyChanges(events);
+    }
+
+    // The feed reconnected and may have missed events: reload everything once
+    private void reloadAll() {
+        homePanel.refreshData();
+        if (patientPanel != null) patientPanel.refreshTable(null);
+        if (doctorPanel != null) doctorPanel.refreshTable(null);
+        if (roomPanel != null) roomPanel.refreshTable(null);
+        if (historyPanel != null) historyPanel.loadData();
     }
 
     // --- HELPER METHODS ---
@@ -1,11 +1,17 @@
 package views;
 
+import controllers.HospitalManagementController;
 import controllers.UserController;
+import db.ConnectionPool;
 import java.awt.*;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import models.DashboardSnapshot;
 import models.User;
+import panels.HomePanel;
+import utils.BackgroundTasks;
 
 public class LoginView extends JFrame {
 
@@ -15,9 +21,16 @@ public class LoginView extends JFrame {
     private JPanel fieldsPanel;
     private JButton btnLogin;
     private JLabel lblSubtitle;
+    private JProgressBar loader;
+
+    // Dashboard data, fetched while the credentials are checked (kept across failed attempts)
+    private CompletableFuture<HospitalManagementController> controllers;
+    private CompletableFuture<DashboardSnapshot> snapshot;
 
     public LoginView() {
         userCtrl = new UserController();
+        // Open the pool's connections while the user is still typing
+        BackgroundTasks.io().execute(() -> ConnectionPool.getInstance().warmUp());
         setTitle("Hospital Management System");
         setSize(1000, 550);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -123,51 +136,79 @@ public class LoginView extends JFrame {
         btnLogin.addActionListener(e -> {
             String username = txtUser.getText();
             String password = new String(txtPass.getPassword());
-            User user = userCtrl.authenticate(username, password);
-
-            if (user != null) {
-                showLoadingInCard(user);
-            } else {
-                JOptionPane.showMessageDialog(this, "Invalid Credentials", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            showLoadingInCard(true);
+            startPrefetch();
+
+            CompletableFuture.supplyAsync(() -> userCtrl.authenticate(username, password), BackgroundTasks.io())
+                    .whenCompleteAsync((user, ex) -> {
+                        if (user != null) {
+                            lblSubtitle.setText("Loading dashboard...");
+                            snapshot.whenCompleteAsync((data, ex2) -> openDashboard(user), BackgroundTasks.EDT);
+                        } else {
+                            if (ex != null) ex.printStackTrace();
+                            showLoadingInCard(false);
+                            JOptionPane.showMessageDialog(this, "Invalid Credentials", "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }, BackgroundTasks.EDT);
         });
         
         getRootPane().setDefaultButton(btnLogin);
     }
 
-    private void showLoadingInCard(User user) {
-        // 1. Hide form elements
-        fieldsPanel.setVisible(false);
-        btnLogin.setVisible(false);
-        lblSubtitle.setText("Authenticating...");
-
-        // 2. Add Progress Bar to the existing rightPanel
-        JProgressBar loader = new JProgressBar();
-        loader.setIndeterminate(true);
-        loader.setMaximumSize(new Dimension(200, 6));
-        loader.setBackground(new Color(255, 255, 255, 30));
-        loader.setForeground(new Color(52, 152, 219));
-        loader.setBorderPainted(false);
-        loader.setAlignmentX(Component.CENTER_ALIGNMENT);
-
-        rightPanel.add(loader);
+    private void showLoadingInCard(boolean loading) {
+        // 1. Swap the form for a progress bar (and back after a failed attempt)
+        fieldsPanel.setVisible(!loading);
+        btnLogin.setVisible(!loading);
+        btnLogin.setEnabled(!loading); // Also the Enter key (default button)
+        lblSubtitle.setText(loading ? "Authenticating..." : "Please sign in to continue");
+
+        if (loader == null) {
+            // 2. Add Progress Bar to the existing rightPanel
+            loader = new JProgressBar();
+            loader.setIndeterminate(true);
+            loader.setMaximumSize(new Dimension(200, 6));
+            loader.setBackground(new Color(255, 255, 255, 30));
+            loader.setForeground(new Color(52, 152, 219));
+            loader.setBorderPainted(false);
+            loader.setAlignmentX(Component.CENTER_ALIGNMENT);
+            rightPanel.add(loader);
+        }
+        loader.setVisible(loading);
+
         rightPanel.revalidate();
         rightPanel.repaint();
+    }
+
+    // 3. Background Task: everything the dashboard needs first, in parallel with authentication.
+    // The controllers are built once (again only if that failed); the snapshot is fetched per
+    // attempt so a retry after a wrong password never opens the dashboard on stale data
+    private void startPrefetch() {
+        if (controllers == null || controllers.isCompletedExceptionally()) {
+            controllers = CompletableFuture.supplyAsync(() -> {
+                ConnectionPool.getInstance().warmUp();
+                return new HospitalManagementController(); // Schema migrations, change feed
+            }, BackgroundTasks.io());
+        }
+
+        snapshot = controllers.thenCompose(hmc -> {
+            // Doctors and rooms land in the controller caches, so the panels' first loads hit them
+            CompletableFuture<?> doctors = hmc.getAsyncCtrl().getAllDoctors().exceptionally(ex -> null);
+            CompletableFuture<?> rooms = hmc.getAsyncCtrl().getAllRooms().exceptionally(ex -> null);
+            CompletableFuture<DashboardSnapshot> home = hmc.getAsyncCtrl()
+                    .getDashboardSnapshot(HomePanel.RECENT_ADMISSIONS).exceptionally(ex -> null);
+            return CompletableFuture.allOf(doctors, rooms, home).thenApply(v -> home.join());
+        });
+    }
 
-        // 3. Background Task
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                Thread.sleep(1500); // 1.5 seconds loading
-                return null;
-            }
-            @Override
-            protected void done() {
-                dispose();
-                new HospitalDashboard(user).setVisible(true);
-            }
-        };
-        worker.execute();
+    private void openDashboard(User user) {
+        HospitalManagementController hmc = controllers.isCompletedExceptionally() ? null : controllers.join();
+        DashboardSnapshot first = snapshot.isCompletedExceptionally() ? null : snapshot.join();
+        dispose();
+        if (hmc == null) {
+            new HospitalDashboard(user).setVisible(true); // Prefetch failed; the dashboard loads its own data
+        } else {
+            new HospitalDashboard(user, hmc, first).setVisible(true);
+        }
     }
 
     private void styleGlassInput(JTextField field) {
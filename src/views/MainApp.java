@@ -2,6 +2,9 @@ package views;
 
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
+import utils.BackgroundTasks;
+import utils.EdtWatchdog;
+import utils.IconUtils;
 
 public class MainApp {
     public static void main(String[] args) {
@@ -12,6 +15,12 @@ public class MainApp {
             System.out.println("Could not set theme");
         }
 
+        // Time every UI event from the start, login screen included
+        EdtWatchdog.install();
+
+        // Render the dashboard icons while the user is still on the login screen
+        BackgroundTasks.io().execute(IconUtils::prewarm);
+
         SwingUtilities.invokeLater(() -> {
             try {
                 LoginView login = new LoginView();